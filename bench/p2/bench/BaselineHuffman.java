@@ -0,0 +1,63 @@
+package p2.bench;
+
+import p2.DataStructures.List.List;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Baseline Huffman Stages
+ *
+ * The original encode and decodeHuff of HuffmanCoding, copied as they were before
+ * they were rewritten on top of TableEncoder and TableDecoder. HuffmanCoding.encode
+ * and decodeHuff now go through the packed bits, so these copies are the only way
+ * to keep measuring where the project started from.
+ *
+ * Both are quadratic in the size of the input (the result is a String grown one
+ * piece at a time, and decodeHuff also scans every code for every bit), so they
+ * are only benchmarked on small inputs, see BenchmarkInput.BASELINE_MAX_CHARS.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+final class BaselineHuffman {
+
+	private BaselineHuffman() {
+	}
+
+	/**
+	 * The original HuffmanCoding.encode.
+	 *
+	 * @param encodingMap a map containing the encoded version of each character in the input string
+	 * @param inputString the string to encode
+	 * @return The encoded input string, a '0' or '1' char per bit
+	 */
+	static String encode(Map<String, String> encodingMap, String inputString) {
+		String res = "";
+		for (int i = 0; i < inputString.length(); i++)
+			res += encodingMap.get(inputString.substring(i, i + 1));
+		return res;
+	}
+
+	/**
+	 * The original HuffmanCoding.decodeHuff.
+	 *
+	 * @param output Encoded String
+	 * @param lookupTable a map containing the prefix codes and their corresponding symbols
+	 * @return The decoded String
+	 */
+	static String decodeHuff(String output, Map<String, String> lookupTable) {
+		String result = "";
+		int start = 0;
+		List<String> prefixCodes = lookupTable.getValues();
+		List<String> symbols = lookupTable.getKeys();
+
+		/* Grow the searched substring until it matches a prefix code */
+		for (int i = 0; i <= output.length(); i++) {
+			String searched = output.substring(start, i);
+			int index = prefixCodes.firstIndex(searched);
+			if (index >= 0) {
+				result = result + symbols.get(index);
+				start = i;
+			}
+		}
+		return result;
+	}
+}
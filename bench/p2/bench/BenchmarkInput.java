@@ -0,0 +1,102 @@
+package p2.bench;
+
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import p2.HuffmanCoding;
+import p2.Codec.PackedBits;
+import p2.Codec.TableEncoder;
+import p2.DataStructures.Map.Map;
+import p2.DataStructures.Tree.BTNode;
+import p2.Utils.CorpusGenerator;
+
+/**
+ * Benchmark Input
+ *
+ * The text every benchmark works on, along with the output of each stage
+ * of HuffmanCoding for it, so every stage can be measured on its own.
+ *
+ * The text is generated by CorpusGenerator from a fixed seed, so every run measures the same input:
+ *   size         number of chars, with a KB, MB or GB suffix (1KB is 1024 chars)
+ *   alphabet     number of distinct chars (at most MAX_FIBONACCI_ALPHABET for fibonacci)
+ *   distribution uniform, zipf, fibonacci, natural or binary (see CorpusGenerator),
+ *                the last two always use their own alphabet
+ *
+ * The sizes stop at 64MB, not 1GB: the text, its bytes, the packed bits and the output of
+ * the stage being measured all have to fit in the 4GB heap of the fork, and a 1GB point
+ * would take about twice that. Bigger sizes can still be run with -p size=... and a
+ * bigger heap (see the README).
+ *
+ * encode and decodeHuff work on a String with a '0' or '1' char per bit, so for the
+ * biggest sizes the bit string doesn't fit in a String and those stages are skipped.
+ * The baseline versions of those stages are quadratic, so they only run on inputs
+ * of up to BASELINE_MAX_CHARS chars.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+@State(Scope.Benchmark)
+public class BenchmarkInput {
+
+	/* Largest input the quadratic baseline stages are run on */
+	public static final int BASELINE_MAX_CHARS = 1 << 16;
+
+	@Param({ "1KB", "1MB", "64MB" })
+	public String size;
+
+	@Param({ "16", "64", "256" })
+	public int alphabet;
+
+	@Param({ "uniform", "zipf", "fibonacci", "natural" })
+	public String distribution;
+
+	/* The input and the output of each stage for it */
+	public String text;
+	public byte[] bytes;
+	public Map<String, Integer> frequencies;
+	public BTNode<Integer, String> tree;
+	public Map<String, String> codes;
+	public TableEncoder encoder;
+	public PackedBits packed;
+	public String encoded;	// null if the bit string is too long for a String
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		long length = CorpusGenerator.parseSize(size);
+		if (length > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Input too long for a String: " + size);
+		int symbols = distribution.equals("fibonacci") ? Math.min(alphabet, CorpusGenerator.MAX_FIBONACCI_ALPHABET) : alphabet;
+		text = CorpusGenerator.of(distribution, symbols, 2023).generateText((int) length);
+		bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+		frequencies = HuffmanCoding.compute_fd(text);
+		tree = HuffmanCoding.huffman_tree(frequencies);
+		codes = HuffmanCoding.huffman_code(tree);
+		encoder = new TableEncoder(codes);
+		packed = encoder.encode(text);
+		encoded = packed.getBitLength() < Integer.MAX_VALUE - 8 ? packed.toBitString() : null;
+	}
+
+	/**
+	 * @return The bit string of the text, as returned by HuffmanCoding.encode
+	 * @throws IllegalStateException if it is too long for a String
+	 */
+	public String encoded() {
+		if (encoded == null)
+			throw new IllegalStateException("The encoded " + size + " input doesn't fit in a String");
+		return encoded;
+	}
+
+	/**
+	 * @return The bit string of the text, for the baseline stages
+	 * @throws IllegalStateException if the text is too long for the baseline stages to finish
+	 */
+	public String baselineEncoded() {
+		if (text.length() > BASELINE_MAX_CHARS)
+			throw new IllegalStateException("The baseline stages are too slow for the " + size + " input");
+		return encoded();
+	}
+}
@@ -0,0 +1,122 @@
+package p2.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.Map;
+import p2.DataStructures.SortedList.SortedLinkedList;
+import p2.DataStructures.SortedList.SortedList;
+
+/**
+ * Benchmarks of the data structures HuffmanCoding is built on, reported
+ * in operations (one put, get, add or remove) per second.
+ *
+ * The keys are 1 char Strings like the ones compute_fd counts, so keyCount plays the
+ * part of the alphabet size: up to 65536 keys, after that keys get longer.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DataStructuresBenchmark {
+
+	private static final int OPERATIONS = 1024;
+
+	@Param({ "16", "256", "4096" })
+	public int keyCount;
+
+	private String[] keys;		// The keys in the table
+	private String[] lookups;	// OPERATIONS random keys from the table
+	private Integer[] values;	// OPERATIONS random values for the sorted list
+	private Map<String, Integer> table;
+	private SortedList<Integer> list;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		keys = new String[keyCount];
+		for (int i = 0; i < keyCount; i++)
+			keys[i] = i < 1 << 16 ? String.valueOf((char) i) : "k" + i;
+
+		Random random = new Random(keyCount);
+		lookups = new String[OPERATIONS];
+		values = new Integer[OPERATIONS];
+		for (int i = 0; i < OPERATIONS; i++) {
+			lookups[i] = keys[random.nextInt(keyCount)];
+			values[i] = random.nextInt();
+		}
+	}
+
+	/* Every iteration starts from a full table and a list with keyCount elements */
+	@Setup(Level.Iteration)
+	public void fill() {
+		table = new HashTableSC<String, Integer>();
+		for (int i = 0; i < keyCount; i++)
+			table.put(keys[i], i);
+
+		list = new SortedLinkedList<Integer>();
+		Random random = new Random(~keyCount);
+		for (int i = 0; i < keyCount; i++)
+			list.add(random.nextInt());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public void hashTableSCGet(Blackhole blackhole) {
+		for (String key : lookups)
+			blackhole.consume(table.get(key));
+	}
+
+	/* Replaces the value of keys already in the table, like counting a char does */
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public void hashTableSCPut() {
+		for (int i = 0; i < OPERATIONS; i++)
+			table.put(lookups[i], i);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public void hashTableSCMerge() {
+		for (String key : lookups)
+			table.merge(key, 1, Integer::sum);
+	}
+
+	/* Adding and then removing keeps the list at the same size between invocations */
+	@Benchmark
+	@OperationsPerInvocation(2 * OPERATIONS)
+	public void sortedLinkedListAddRemove() {
+		for (Integer value : values)
+			list.add(value);
+		for (Integer value : values)
+			list.remove(value);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPERATIONS)
+	public void sortedLinkedListRemoveFirst() {
+		for (Integer value : values) {
+			list.add(value);
+			list.removeIndex(0);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package p2.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline for the HuffmanCoding stages: zlib with the HUFFMAN_ONLY strategy,
+ * which skips the LZ77 matching and only Huffman codes the bytes of the input,
+ * like this project does with its chars. Run on the same text, one byte per char.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class DeflaterBaselineBenchmark {
+
+	@State(Scope.Thread)
+	public static class Zlib {
+		private static final int BUFFER_SIZE = 1 << 16;
+
+		Deflater deflater;
+		Inflater inflater;
+		byte[] buffer;
+		byte[] compressed;
+
+		@Setup(Level.Trial)
+		public void setUp(BenchmarkInput input) {
+			deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			deflater.setStrategy(Deflater.HUFFMAN_ONLY);
+			inflater = new Inflater(true);
+			buffer = new byte[BUFFER_SIZE];
+
+			/* Keep the compressed input around for inflate */
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			deflater.setInput(input.bytes);
+			deflater.finish();
+			while (!deflater.finished())
+				out.write(buffer, 0, deflater.deflate(buffer));
+			compressed = out.toByteArray();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			deflater.end();
+			inflater.end();
+		}
+	}
+
+	@Benchmark
+	public long deflate(BenchmarkInput input, Zlib zlib, Throughput throughput) {
+		throughput.add(input.text.length());
+		Deflater deflater = zlib.deflater;
+		deflater.reset();
+		deflater.setInput(input.bytes);
+		deflater.finish();
+
+		/* The output is thrown away, only its size is kept */
+		long size = 0;
+		while (!deflater.finished())
+			size += deflater.deflate(zlib.buffer);
+		return size;
+	}
+
+	@Benchmark
+	public long inflate(BenchmarkInput input, Zlib zlib, Throughput throughput) throws DataFormatException {
+		throughput.add(input.text.length());
+		Inflater inflater = zlib.inflater;
+		inflater.reset();
+		inflater.setInput(zlib.compressed);
+
+		long size = 0;
+		while (!inflater.finished())
+			size += inflater.inflate(zlib.buffer);
+		return size;
+	}
+}
@@ -0,0 +1,103 @@
+package p2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import p2.HuffmanCoding;
+import p2.Codec.PackedBits;
+import p2.DataStructures.Map.Map;
+import p2.DataStructures.Tree.BTNode;
+
+/**
+ * Benchmarks of every stage of HuffmanCoding, each on the output of the stage before it
+ * (see BenchmarkInput). The megabytes counter is the size of the original text, so the
+ * MB/s of every stage can be compared with each other and with the Deflater baseline.
+ *
+ * huffman_tree and huffman_code only depend on the number of distinct chars, not on
+ * the size of the input, so their MB/s mostly tells how much they cost next to the others.
+ *
+ * encode and decodeHuff measure the current HuffmanCoding methods, which go through the
+ * packed bits and convert them to or from the bit string. The original algorithms are
+ * kept in BaselineHuffman and measured by encode_baseline and decodeHuff_baseline.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class HuffmanStagesBenchmark {
+
+	@Benchmark
+	public Map<String, Integer> compute_fd(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return HuffmanCoding.compute_fd(input.text);
+	}
+
+	@Benchmark
+	public BTNode<Integer, String> huffman_tree(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return HuffmanCoding.huffman_tree(input.frequencies);
+	}
+
+	@Benchmark
+	public Map<String, String> huffman_code(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return HuffmanCoding.huffman_code(input.tree);
+	}
+
+	@Benchmark
+	public String encode(BenchmarkInput input, Throughput throughput) {
+		input.encoded();
+		throughput.add(input.text.length());
+		return HuffmanCoding.encode(input.codes, input.text);
+	}
+
+	@Benchmark
+	public String decodeHuff(BenchmarkInput input, Throughput throughput) {
+		String encoded = input.encoded();
+		throughput.add(input.text.length());
+		return HuffmanCoding.decodeHuff(encoded, input.codes);
+	}
+
+	@Benchmark
+	public String encode_baseline(BenchmarkInput input, Throughput throughput) {
+		input.baselineEncoded();
+		throughput.add(input.text.length());
+		return BaselineHuffman.encode(input.codes, input.text);
+	}
+
+	@Benchmark
+	public String decodeHuff_baseline(BenchmarkInput input, Throughput throughput) {
+		String encoded = input.baselineEncoded();
+		throughput.add(input.text.length());
+		return BaselineHuffman.decodeHuff(encoded, input.codes);
+	}
+
+	@Benchmark
+	public PackedBits encode_packed(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return HuffmanCoding.encode_packed(input.codes, input.text);
+	}
+
+	/* encode_packed without building the code tables, which only depends on the alphabet */
+	@Benchmark
+	public PackedBits encode_table(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return input.encoder.encode(input.text);
+	}
+
+	@Benchmark
+	public String decode_packed(BenchmarkInput input, Throughput throughput) {
+		throughput.add(input.text.length());
+		return HuffmanCoding.decode_packed(input.packed, input.codes);
+	}
+}
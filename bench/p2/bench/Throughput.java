@@ -0,0 +1,36 @@
+package p2.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput Counter
+ *
+ * JMH reports each public field of this state as a rate per second next to the
+ * score, so counting the megabytes of input a benchmark went through gives MB/s.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+	public double megabytes;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		megabytes = 0;
+	}
+
+	/**
+	 * Counts input processed by one call of the benchmark.
+	 *
+	 * @param bytes size of the input
+	 */
+	public void add(long bytes) {
+		megabytes += bytes / 1e6;
+	}
+}
@@ -0,0 +1,104 @@
+package p2.Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Adaptive Huffman Input Stream
+ *
+ * Decodes what an AdaptiveHuffmanOutputStream wrote, one symbol at a time,
+ * updating its own AdaptiveHuffmanTree exactly like the encoder did. Every
+ * byte is returned as soon as its code arrives, reading from the underlying
+ * stream only what is already available, and the stream ends at the EOF symbol.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class AdaptiveHuffmanInputStream extends InputStream {
+
+	private static final int BUFFER_SIZE = 1 << 13;
+
+	private final InputStream in;
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPosition;
+	private int bufferLimit;
+	private int current;		// Byte being read, and how many of its bits are left
+	private int currentBits;
+	private boolean endOfData;
+
+	public AdaptiveHuffmanInputStream(InputStream in) {
+		if (in == null)
+			throw new IllegalArgumentException("Input stream cannot be null");
+		this.in = in;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (endOfData)
+			return -1;
+
+		/* Walk down the tree, one bit per level */
+		int node = tree.root();
+		while (!tree.isLeaf(node))
+			node = tree.child(node, readBit());
+
+		int symbol = tree.symbol(node);
+		if (symbol == -1) {
+			/* NYT: a new symbol follows in raw bits */
+			symbol = 0;
+			for (int i = 0; i < AdaptiveHuffmanTree.LITERAL_BITS; i++)
+				symbol = (symbol << 1) | readBit();
+			if (symbol > AdaptiveHuffmanTree.EOF || tree.contains(symbol))
+				throw new IOException("Compressed stream is corrupted");
+		}
+		tree.update(symbol);
+
+		if (symbol == AdaptiveHuffmanTree.EOF) {
+			endOfData = true;
+			return -1;
+		}
+		return symbol;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length)
+			throw new IndexOutOfBoundsException();
+		if (len == 0)
+			return 0;
+
+		/* Stop early rather than block once something was decoded and no input is waiting */
+		int count = 0;
+		while (count < len) {
+			if (count > 0 && currentBits == 0 && bufferPosition == bufferLimit && in.available() == 0)
+				break;
+			int symbol = read();
+			if (symbol == -1)
+				break;
+			b[off + count++] = (byte) symbol;
+		}
+		return count == 0 ? -1 : count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private int readBit() throws IOException {
+		if (currentBits == 0) {
+			if (bufferPosition == bufferLimit) {
+				bufferLimit = in.read(buffer);
+				bufferPosition = 0;
+				if (bufferLimit <= 0) {
+					bufferLimit = 0;
+					throw new EOFException("Compressed stream ends before EOF");
+				}
+			}
+			current = buffer[bufferPosition++] & 0xFF;
+			currentBits = 8;
+		}
+		return (current >>> --currentBits) & 1;
+	}
+}
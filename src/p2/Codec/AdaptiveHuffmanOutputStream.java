@@ -0,0 +1,121 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Adaptive Huffman Output Stream
+ *
+ * One pass Huffman compression: every byte is encoded as soon as it's written,
+ * with the codes of an AdaptiveHuffmanTree that learns the frequencies as it
+ * goes. There is no header and no need to see the whole input first, so it
+ * works on sockets and pipes, and flush() pushes every whole byte encoded so far
+ * to the underlying stream (the few bits of an unfinished byte wait for the next code).
+ *
+ * finish() (or close()) encodes EOF and pads the last byte with 0 bits, so
+ * the decoder knows where the data ends. Read it back with AdaptiveHuffmanInputStream.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class AdaptiveHuffmanOutputStream extends OutputStream {
+
+	private static final int BUFFER_SIZE = 1 << 13;
+
+	private final OutputStream out;
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final byte[] path = new byte[AdaptiveHuffmanTree.MAX_NODES];
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int byteCount;
+	private int pending;		// Bits of the unfinished byte, right aligned
+	private int pendingBits;
+	private boolean finished;
+
+	public AdaptiveHuffmanOutputStream(OutputStream out) {
+		if (out == null)
+			throw new IllegalArgumentException("Output stream cannot be null");
+		this.out = out;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (finished)
+			throw new IOException("Stream is already finished");
+		encode(b & 0xFF);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length)
+			throw new IndexOutOfBoundsException();
+		if (finished)
+			throw new IOException("Stream is already finished");
+		for (int i = off; i < off + len; i++)
+			encode(b[i] & 0xFF);
+	}
+
+	/**
+	 * Writes every whole byte encoded so far and flushes the underlying stream.
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	/**
+	 * Encodes EOF and writes everything left, without closing the underlying stream.
+	 * Nothing else can be written afterwards.
+	 *
+	 * @throws IOException if the underlying stream fails to write
+	 */
+	public void finish() throws IOException {
+		if (finished)
+			return;
+		encode(AdaptiveHuffmanTree.EOF);
+		if (pendingBits > 0)
+			writeBits(0, 8 - pendingBits);
+		finished = true;
+		flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void encode(int symbol) throws IOException {
+		boolean seen = tree.contains(symbol);
+
+		/* Code of the symbol, or the code of NYT and the symbol's raw bits */
+		int length = tree.code(symbol, path);
+		for (int i = 0; i < length; i++)
+			writeBits(path[i], 1);
+		if (!seen)
+			writeBits(symbol, AdaptiveHuffmanTree.LITERAL_BITS);
+
+		tree.update(symbol);
+	}
+
+	/* Writes the low count bits of value, most significant first */
+	private void writeBits(int value, int count) throws IOException {
+		for (int i = count - 1; i >= 0; i--) {
+			pending = (pending << 1) | ((value >>> i) & 1);
+			if (++pendingBits == 8) {
+				if (byteCount == buffer.length)
+					drain();
+				buffer[byteCount++] = (byte) pending;
+				pending = 0;
+				pendingBits = 0;
+			}
+		}
+	}
+
+	private void drain() throws IOException {
+		out.write(buffer, 0, byteCount);
+		byteCount = 0;
+	}
+}
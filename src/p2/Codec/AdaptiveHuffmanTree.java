@@ -0,0 +1,169 @@
+package p2.Codec;
+
+import java.util.Arrays;
+
+/**
+ * Adaptive Huffman Tree
+ *
+ * The dynamically updated tree of the FGK algorithm, shared by the adaptive
+ * encoder and decoder: both sides start from the same empty tree and apply the
+ * same update after every symbol, so they always agree on the codes without
+ * any header or first pass over the data.
+ *
+ * The tree lives in flat arrays indexed by node number instead of linked
+ * BTNodes. Node 0 is the root and weights never increase with the node number
+ * (the sibling property), the two children of a node are always next to each
+ * other, and the NYT ("not yet transmitted") leaf, with weight 0, is always the
+ * last node. Moving a subtree somewhere else is just swapping the contents of
+ * two slots and fixing the parent links of what was moved.
+ *
+ * Symbols are 0 to 255 (byte values) plus EOF. A symbol seen for the first
+ * time is sent as the code of NYT followed by its LITERAL_BITS raw bits.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+class AdaptiveHuffmanTree {
+
+	public static final int EOF = 256;
+	public static final int LITERAL_BITS = 9;
+	private static final int NYT = 257;
+	static final int MAX_NODES = 2 * (NYT + 1) - 1;
+
+	private final long[] weight = new long[MAX_NODES];
+	private final int[] parent = new int[MAX_NODES];
+	private final int[] content = new int[MAX_NODES];		// First child of an internal node, symbol of a leaf
+	private final boolean[] leaf = new boolean[MAX_NODES];
+	private final int[] leafOf = new int[NYT + 1];			// Node of every symbol's leaf, -1 if not seen yet
+	private int nodeCount;
+
+	public AdaptiveHuffmanTree() {
+		Arrays.fill(leafOf, -1);
+
+		/* The empty tree is just the NYT leaf */
+		parent[0] = -1;
+		leaf[0] = true;
+		content[0] = NYT;
+		leafOf[NYT] = 0;
+		nodeCount = 1;
+	}
+
+	/**
+	 * Writes the code of the symbol's leaf, or of NYT if the symbol was not seen yet.
+	 *
+	 * @param symbol byte value or EOF
+	 * @param path array where the bits are stored, root first, with room for at least MAX_NODES bits
+	 * @return Number of bits in the code
+	 */
+	public int code(int symbol, byte[] path) {
+		int node = leafOf[symbol] != -1 ? leafOf[symbol] : leafOf[NYT];
+
+		/* Walk up to the root, then flip the bits around */
+		int length = 0;
+		for (; node != 0; node = parent[node])
+			path[length++] = (byte) (node == content[parent[node]] ? 0 : 1);
+		for (int i = 0; i < length / 2; i++) {
+			byte bit = path[i];
+			path[i] = path[length - 1 - i];
+			path[length - 1 - i] = bit;
+		}
+		return length;
+	}
+
+	/**
+	 * @param symbol byte value or EOF
+	 * @return true if the symbol has been seen before, so it has a code of its own
+	 */
+	public boolean contains(int symbol) {
+		return leafOf[symbol] != -1;
+	}
+
+	public int root() {
+		return 0;
+	}
+
+	public boolean isLeaf(int node) {
+		return leaf[node];
+	}
+
+	/**
+	 * @param node internal node
+	 * @param bit 0 for the left child, 1 for the right one
+	 * @return The child of the node
+	 */
+	public int child(int node, int bit) {
+		return content[node] + bit;
+	}
+
+	/**
+	 * @param node leaf node
+	 * @return The symbol of the leaf, -1 if it's the NYT leaf
+	 */
+	public int symbol(int node) {
+		return content[node] == NYT ? -1 : content[node];
+	}
+
+	/**
+	 * Counts one more occurrence of the symbol, adding it to the tree
+	 * if it's new and restoring the sibling property.
+	 *
+	 * @param symbol byte value or EOF
+	 */
+	public void update(int symbol) {
+		int node = leafOf[symbol];
+		if (node == -1) {
+			/* Split NYT: its slot becomes a parent of the new leaf and the new NYT */
+			int nyt = leafOf[NYT];
+			leaf[nyt] = false;
+			content[nyt] = nodeCount;
+			setLeaf(nodeCount, symbol, nyt);
+			setLeaf(nodeCount + 1, NYT, nyt);
+			nodeCount += 2;
+			node = leafOf[symbol];
+		}
+
+		while (node != -1) {
+			/* First node of the block of nodes with the same weight */
+			int first = node;
+			while (first > 0 && weight[first - 1] == weight[node])
+				first--;
+
+			/* Only the parent can be an ancestor in the same block (when the sibling is NYT) */
+			if (first != node && first != parent[node]) {
+				swap(first, node);
+				node = first;
+			}
+			weight[node]++;
+			node = parent[node];
+		}
+	}
+
+	private void setLeaf(int node, int symbol, int parentNode) {
+		weight[node] = 0;
+		parent[node] = parentNode;
+		leaf[node] = true;
+		content[node] = symbol;
+		leafOf[symbol] = node;
+	}
+
+	/* Swaps the subtrees in the two slots, which have the same weight */
+	private void swap(int a, int b) {
+		int content = this.content[a];
+		this.content[a] = this.content[b];
+		this.content[b] = content;
+		boolean leaf = this.leaf[a];
+		this.leaf[a] = this.leaf[b];
+		this.leaf[b] = leaf;
+		relink(a);
+		relink(b);
+	}
+
+	/* Points whatever is in the slot back at it */
+	private void relink(int node) {
+		if (leaf[node])
+			leafOf[content[node]] = node;
+		else {
+			parent[content[node]] = node;
+			parent[content[node] + 1] = node;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Bit Reader
+ *
+ * Reads back bits packed by a BitWriter, most significant bit first.
+ *
+ * Every peek loads the 8 bytes around the current position as a single
+ * 64-bit window, so looking ahead several bits at once (which is what the
+ * table driven decoder does) costs the same as reading a single bit.
+ * Reading past the end behaves as if the data was padded with 0 bits.
+ *
+ * The reader can also pull its bytes from a channel, keeping only a
+ * fixed size window of the data in memory. In that case the number
+ * of bits is not known in advance, so the caller decides when to stop
+ * (for example after decoding a known number of symbols).
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class BitReader {
+
+	/* Loads 8 big endian bytes as a whole word at once */
+	private static final VarHandle WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	private final byte[] data;
+	private final long bitLength;
+	private long position;
+
+	/* Only used when reading from a channel */
+	private final ReadableByteChannel source;
+	private int limit;				// Valid bytes in data
+	private long windowStart;		// Byte offset of data[0] in the whole stream
+	private boolean endOfStream;
+
+	public BitReader(byte[] data, long bitLength) {
+		if (data == null)
+			throw new IllegalArgumentException("Data cannot be null");
+		if (bitLength < 0 || (bitLength + 7) / 8 > data.length)
+			throw new IllegalArgumentException("Bit length does not fit in the given data");
+		this.data = data;
+		this.bitLength = bitLength;
+		this.position = 0;
+		this.source = null;
+		this.limit = data.length;
+	}
+
+	/**
+	 * Creates a reader that pulls its bytes from the given channel as they are needed.
+	 *
+	 * @param source channel with the packed bits
+	 * @param bufferSize size in bytes of the window kept in memory, at least 16
+	 */
+	public BitReader(ReadableByteChannel source, int bufferSize) {
+		if (source == null)
+			throw new IllegalArgumentException("Source cannot be null");
+		if (bufferSize < 16)
+			throw new IllegalArgumentException("Buffer size must be at least 16");
+		this.data = new byte[bufferSize];
+		this.bitLength = Long.MAX_VALUE;
+		this.source = source;
+		this.limit = 0;
+	}
+
+	public BitReader(PackedBits bits) {
+		this(bits.getBytes(), bits.getBitLength());
+	}
+
+	/**
+	 * Returns the next n bits without consuming them.
+	 *
+	 * @param n number of bits to look at, between 0 and 32
+	 * @return The next n bits, right aligned
+	 */
+	public int peek(int n) {
+		if (n == 0)
+			return 0;
+		long window = loadWord((int) ((position >>> 3) - windowStart));
+		return (int) ((window << (position & 7)) >>> (64 - n));
+	}
+
+	/**
+	 * Consumes the next n bits.
+	 *
+	 * @param n number of bits to skip
+	 */
+	public void skip(int n) {
+		position += n;
+	}
+
+	/**
+	 * Reads and consumes the next n bits.
+	 *
+	 * @param n number of bits to read, between 0 and 32
+	 * @return The bits read, right aligned
+	 */
+	public int read(int n) {
+		int result = peek(n);
+		position += n;
+		return result;
+	}
+
+	/**
+	 * @return Number of bits consumed so far
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Moves the reader to the given bit position
+	 *
+	 * @param position bit position to move to
+	 * @throws IndexOutOfBoundsException if the position is past the end of the data
+	 * @throws IllegalStateException if the reader pulls its bytes from a channel
+	 */
+	public void seek(long position) {
+		if (source != null)
+			throw new IllegalStateException("Can't seek a reader over a channel");
+		if (position < 0 || position > bitLength)
+			throw new IndexOutOfBoundsException();
+		this.position = position;
+	}
+
+	/**
+	 * @return Total number of bits that can be read
+	 */
+	public long bitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * @return True if there are bits left to read, false otherwise
+	 */
+	public boolean hasRemaining() {
+		return position < bitLength;
+	}
+
+	/* Loads 8 bytes starting at the given index, big endian, padding with 0 past the end */
+	private long loadWord(int index) {
+		long word = 0;
+		if (index + 8 > limit && source != null && !endOfStream)
+			index = refill(index);
+		if (index + 8 <= limit)
+			return (long) WORD.get(data, index);
+		for (int i = 0; i < 8; i++)
+			word = (word << 8) | (index + i < limit ? data[index + i] & 0xFF : 0);
+		return word;
+	}
+
+	/**
+	 * Slides the window so it starts at the given index and fills
+	 * the rest of it from the channel.
+	 *
+	 * @return The new index of the byte that was at the given index
+	 */
+	private int refill(int index) {
+		int kept = Math.max(limit - index, 0);
+		System.arraycopy(data, Math.min(index, limit), data, 0, kept);
+		windowStart += index;
+		limit = kept;
+
+		try {
+			ByteBuffer in = ByteBuffer.wrap(data, limit, data.length - limit);
+			while (in.hasRemaining()) {
+				if (source.read(in) < 0) {
+					endOfStream = true;
+					break;
+				}
+			}
+			limit = in.position();
+		} catch (IOException e) {
+			/* peek is called once per symbol, so it can't declare the checked exception */
+			throw new UncheckedIOException(e);
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,211 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Bit Writer
+ *
+ * Packs variable length codes into bytes, most significant bit first.
+ *
+ * Incoming codes are shifted into a 64-bit accumulator, and only when
+ * the accumulator is full it is flushed as a whole 8 byte word into the
+ * output buffer. This way writing a code is just a couple of shifts
+ * and no per-bit work is needed.
+ *
+ * The writer can either keep everything in memory (growing its buffer as needed)
+ * or drain its buffer into a channel every time it fills up, which keeps
+ * memory use fixed no matter how many bits are written.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class BitWriter {
+
+	private static final int DEFAULT_SIZE = 1 << 12;
+
+	/* Stores a whole word as 8 big endian bytes at once */
+	private static final VarHandle WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	private byte[] buffer;
+	private int byteCount;		// Bytes already flushed into the buffer
+	private long accumulator;	// Pending bits, right aligned
+	private int pendingBits;	// Number of valid bits inside the accumulator
+	private long bitLength;		// Total number of bits written
+	private final WritableByteChannel sink;
+
+	public BitWriter(int initialCapacity) {
+		if (initialCapacity < 0)
+			throw new IllegalArgumentException("Capacity cannot be negative");
+		/* Always keep room for at least one word */
+		buffer = new byte[Math.max(initialCapacity, 8)];
+		sink = null;
+	}
+
+	/**
+	 * Creates a writer that drains its buffer into the given channel
+	 * whenever it fills up. Call finish once all the bits are written.
+	 *
+	 * @param sink channel receiving the packed bytes
+	 * @param bufferSize size in bytes of the buffer, at least 8
+	 */
+	public BitWriter(WritableByteChannel sink, int bufferSize) {
+		if (sink == null)
+			throw new IllegalArgumentException("Sink cannot be null");
+		if (bufferSize < 8)
+			throw new IllegalArgumentException("Buffer size must be at least 8");
+		this.buffer = new byte[bufferSize];
+		this.sink = sink;
+	}
+
+	public BitWriter() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Writes the lowest length bits of the given value, most significant bit first.
+	 *
+	 * @param bits the bits to write, right aligned
+	 * @param length how many bits to write, between 0 and 64
+	 * @throws IllegalArgumentException if length is not between 0 and 64
+	 */
+	public void write(long bits, int length) {
+		if (length < 0 || length > 64)
+			throw new IllegalArgumentException("Length must be between 0 and 64");
+		if (length == 0)
+			return;
+		if (length < 64)
+			bits &= (1L << length) - 1;
+
+		int free = 64 - pendingBits;
+		if (length < free) {
+			// Fits in the accumulator, just shift it in
+			accumulator = (accumulator << length) | bits;
+			pendingBits += length;
+		}
+		else {
+			/**
+			 * The accumulator gets full: the top "free" bits of the code complete
+			 * the current word, and whatever remains starts the next one
+			 */
+			int rest = length - free;
+			long word = (pendingBits == 0 ? 0 : accumulator << free) | (bits >>> rest);
+			flushWord(word);
+			accumulator = bits & ((1L << rest) - 1);
+			pendingBits = rest;
+		}
+		bitLength += length;
+	}
+
+	/**
+	 * Writes a code given as a string of '0' and '1' characters,
+	 * like the ones stored in the prefix code map from HuffmanCoding.huffman_code.
+	 *
+	 * @param code the code to write
+	 * @throws IllegalArgumentException if the code has characters other than '0' and '1'
+	 */
+	public void writeCode(CharSequence code) {
+		long bits = 0;
+		int length = 0;
+		for (int i = 0; i < code.length(); i++) {
+			char c = code.charAt(i);
+			if (c != '0' && c != '1')
+				throw new IllegalArgumentException("Codes can only contain '0' and '1'");
+			bits = (bits << 1) | (c - '0');
+
+			// Codes longer than a word are written a word at a time
+			if (++length == 64) {
+				write(bits, 64);
+				bits = 0;
+				length = 0;
+			}
+		}
+		write(bits, length);
+	}
+
+	/**
+	 * @return Total number of bits written so far
+	 */
+	public long bitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * Returns the bits written so far, including the partially filled last byte.
+	 * The writer is left untouched, so more bits can be written afterwards.
+	 *
+	 * @return A copy of the bits written so far
+	 * @throws IllegalStateException if the writer drains into a channel
+	 */
+	public PackedBits toPackedBits() {
+		if (sink != null)
+			throw new IllegalStateException("Bits were written to a channel");
+
+		byte[] result = new byte[(int) ((bitLength + 7) / 8)];
+		System.arraycopy(buffer, 0, result, 0, byteCount);
+
+		/* Left align the pending bits and spill them byte by byte */
+		long pending = pendingBits == 0 ? 0 : accumulator << (64 - pendingBits);
+		for (int i = byteCount; i < result.length; i++, pending <<= 8)
+			result[i] = (byte) (pending >>> 56);
+
+		return new PackedBits(result, bitLength);
+	}
+
+	/**
+	 * Pads the last partial byte with 0 bits and drains everything left into the sink.
+	 * Nothing else should be written afterwards.
+	 *
+	 * @throws IOException if the sink fails to write
+	 * @throws IllegalStateException if the writer has no sink
+	 */
+	public void finish() throws IOException {
+		if (sink == null)
+			throw new IllegalStateException("Writer has no sink to finish");
+
+		/* Left align the pending bits and spill them byte by byte */
+		long pending = pendingBits == 0 ? 0 : accumulator << (64 - pendingBits);
+		for (int i = 0; i < (pendingBits + 7) / 8; i++, pending <<= 8) {
+			if (byteCount == buffer.length)
+				drain();
+			buffer[byteCount++] = (byte) (pending >>> 56);
+		}
+		accumulator = 0;
+		pendingBits = 0;
+		drain();
+	}
+
+	private void drain() throws IOException {
+		ByteBuffer out = ByteBuffer.wrap(buffer, 0, byteCount);
+		while (out.hasRemaining())
+			sink.write(out);
+		byteCount = 0;
+	}
+
+	private void flushWord(long word) {
+		if (byteCount + 8 > buffer.length) {
+			if (sink == null)
+				reAllocate();
+			else
+				try {
+					drain();
+				} catch (IOException e) {
+					/* write is called once per code, so it can't declare the checked exception */
+					throw new UncheckedIOException(e);
+				}
+		}
+		WORD.set(buffer, byteCount, word);
+		byteCount += 8;
+	}
+
+	private void reAllocate() {
+		/* create a new array with twice the size */
+		byte[] newBuffer = new byte[2 * buffer.length];
+		System.arraycopy(buffer, 0, newBuffer, 0, byteCount);
+		buffer = newBuffer;
+	}
+}
@@ -0,0 +1,236 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Block Compressor
+ *
+ * Splits a file into independent blocks of blockSize bytes and compresses
+ * every block with its own code (a ByteHuffmanCodec built from the block's own
+ * counts), so the code follows the local statistics of the data. Since blocks
+ * don't depend on each other, they are encoded and decoded concurrently on an
+ * ExecutorService, keeping every core busy on a single large file.
+ *
+ * Blocks are handed to the executor as the input is read and written out in
+ * order as they finish, with at most two blocks per core in flight, so memory
+ * stays bounded no matter how big the file is.
+ *
+ * Compressed format (big endian):
+ *   int   MAGIC
+ *   int   block size
+ *   then, for every block:
+ *     int   size of the rest of the block
+ *     int   number of bytes in the block
+ *     ByteHuffmanCodec.HEADER_SIZE bytes with the code lengths of the block
+ *     the packed codes of the block
+ *   int   0, marking the end of the blocks
+ *   then, the footer index:
+ *     long  file offset of every block (where its frame size is)
+ *     long  number of bytes in the original file
+ *     int   number of blocks
+ *     int   FOOTER_MAGIC
+ *
+ * Every block but the last holds exactly blockSize bytes, so byte i of the
+ * original file is in block i / blockSize, and the footer gives where that
+ * block starts in the compressed file. SeekableBlockReader uses it to decode
+ * only the blocks covering a requested range, instead of the whole file.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class BlockCompressor {
+
+	public static final int MIN_BLOCK_SIZE = 1 << 10;
+	public static final int MAX_BLOCK_SIZE = 1 << 26;
+	private static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+	static final int MAGIC = 0x4855424B; // "HUBK"
+	static final int FOOTER_MAGIC = 0x48554958; // "HUIX"
+
+	private final int blockSize;
+	private final ExecutorService executor;
+	private final int maxInFlight;
+
+	/**
+	 * @param blockSize number of input bytes in every block (the last one may have fewer),
+	 *                  between MIN_BLOCK_SIZE and MAX_BLOCK_SIZE
+	 * @param executor executor that encodes and decodes the blocks, not shut down by the compressor
+	 */
+	public BlockCompressor(int blockSize, ExecutorService executor) {
+		if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE)
+			throw new IllegalArgumentException("Block size must be between " + MIN_BLOCK_SIZE + " and " + MAX_BLOCK_SIZE);
+		if (executor == null)
+			throw new IllegalArgumentException("Executor cannot be null");
+		this.blockSize = blockSize;
+		this.executor = executor;
+		this.maxInFlight = 2 * Runtime.getRuntime().availableProcessors();
+	}
+
+	public BlockCompressor(int blockSize) {
+		this(blockSize, ForkJoinPool.commonPool());
+	}
+
+	public BlockCompressor() {
+		this(DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Compresses any file, block by block.
+	 *
+	 * @param input file to compress
+	 * @param output file where the compressed data is written (replaced if it exists)
+	 * @return Number of blocks written
+	 * @throws IOException if reading or writing any of the files fails
+	 */
+	public long compress(Path input, Path output) throws IOException {
+		try (MappedInput in = new MappedInput(input);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			long blockCount = (in.size() + blockSize - 1) / blockSize;
+			if (blockCount > (Integer.MAX_VALUE - 16) / 8)
+				throw new IOException("File has too many blocks, use a bigger block size");
+			long[] blockOffsets = new long[(int) blockCount];
+
+			StreamingCompressor.writeFully(out, ByteBuffer.allocate(8).putInt(MAGIC).putInt(blockSize).flip());
+
+			/* Map every block and encode it on the executor, writing the results in order */
+			ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+			int written = 0;
+			for (int block = 0; block < blockCount; block++) {
+				long offset = (long) block * blockSize;
+				ByteBuffer bytes = in.map(offset, (int) Math.min(blockSize, in.size() - offset));
+				pending.add(executor.submit(() -> encodeBlock(bytes)));
+				if (pending.size() >= maxInFlight)
+					blockOffsets[written++] = writeFrame(out, await(pending.poll()));
+			}
+			while (!pending.isEmpty())
+				blockOffsets[written++] = writeFrame(out, await(pending.poll()));
+
+			/* End marker and footer index */
+			ByteBuffer footer = ByteBuffer.allocate(4 + 8 * blockOffsets.length + 16);
+			footer.putInt(0);
+			for (long offset : blockOffsets)
+				footer.putLong(offset);
+			footer.putLong(in.size()).putInt(blockOffsets.length).putInt(FOOTER_MAGIC);
+			StreamingCompressor.writeFully(out, footer.flip());
+			return blockCount;
+		}
+	}
+
+	/**
+	 * Decompresses a file written by compress, decoding its blocks concurrently.
+	 *
+	 * @param input compressed file
+	 * @param output file where the original bytes are written (replaced if it exists)
+	 * @return Number of bytes decompressed
+	 * @throws IOException if reading or writing any of the files fails, or the input is not a compressed file
+	 */
+	public long decompress(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer header = StreamingCompressor.readFully(in, 8);
+			if (header.getInt() != MAGIC)
+				throw new IOException("Input is not a block compressed file");
+			int storedBlockSize = header.getInt();
+
+			/* Read every block and decode it on the executor, writing the results in order */
+			ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+			long total = 0;
+			int frameSize;
+			while ((frameSize = StreamingCompressor.readFully(in, 4).getInt()) != 0) {
+				if (frameSize < 4 + ByteHuffmanCodec.HEADER_SIZE)
+					throw new IOException("Compressed file is corrupted");
+				ByteBuffer frame = StreamingCompressor.readFully(in, frameSize);
+				pending.add(executor.submit(() -> decodeBlock(frame, storedBlockSize)));
+				if (pending.size() >= maxInFlight)
+					total += writeBlock(out, await(pending.poll()));
+			}
+			while (!pending.isEmpty())
+				total += writeBlock(out, await(pending.poll()));
+			return total;
+		}
+	}
+
+	/**
+	 * Encodes a block into its frame: the frame size, the block size, the code lengths and the codes.
+	 *
+	 * @param block bytes of the block, from position to limit
+	 * @return The frame, ready to be written
+	 */
+	static ByteBuffer encodeBlock(ByteBuffer block) {
+		long[] counts = new long[256];
+		for (int i = block.position(); i < block.limit(); i++)
+			counts[block.get(i) & 0xFF]++;
+		ByteHuffmanCodec codec = ByteHuffmanCodec.fromCounts(counts);
+
+		BitWriter writer = new BitWriter(block.remaining() / 2 + 16);
+		codec.encode(block, writer);
+		PackedBits bits = writer.toPackedBits();
+
+		int frameSize = 4 + ByteHuffmanCodec.HEADER_SIZE + bits.getByteLength();
+		ByteBuffer frame = ByteBuffer.allocate(4 + frameSize);
+		frame.putInt(frameSize).putInt(block.remaining());
+		codec.writeLengths(frame);
+		frame.put(bits.getBytes(), 0, bits.getByteLength());
+		return frame.flip();
+	}
+
+	/**
+	 * Decodes a frame written by encodeBlock, without its leading frame size.
+	 *
+	 * @param frame the block size, code lengths and codes of the block
+	 * @param maxBlockSize largest number of bytes a block can have
+	 * @return The bytes of the block
+	 * @throws IllegalArgumentException if the frame is not valid
+	 */
+	static ByteBuffer decodeBlock(ByteBuffer frame, int maxBlockSize) {
+		int length = frame.getInt();
+		if (length < 0 || length > maxBlockSize)
+			throw new IllegalArgumentException("Block size is not valid");
+		ByteHuffmanCodec codec = ByteHuffmanCodec.readLengths(frame);
+
+		byte[] bits = new byte[frame.remaining()];
+		frame.get(bits);
+		byte[] result = new byte[length];
+		codec.decode(new BitReader(bits, 8L * bits.length), result, 0, length);
+		return ByteBuffer.wrap(result);
+	}
+
+	/* Writes a frame, returning where it starts in the file */
+	private static long writeFrame(FileChannel out, ByteBuffer frame) throws IOException {
+		long position = out.position();
+		StreamingCompressor.writeFully(out, frame);
+		return position;
+	}
+
+	private static long writeBlock(FileChannel out, ByteBuffer block) throws IOException {
+		int length = block.remaining();
+		StreamingCompressor.writeFully(out, block);
+		return length;
+	}
+
+	/* Waits for a block, rethrowing whatever went wrong while processing it */
+	private static ByteBuffer await(Future<ByteBuffer> block) throws IOException {
+		try {
+			return block.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a block");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IllegalArgumentException)
+				throw new IOException("Compressed file is corrupted", e.getCause());
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,452 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+
+/**
+ * Byte Huffman Codec
+ *
+ * Huffman coding over the 256 byte values, for any kind of file (images,
+ * serialized records, ...) instead of only UTF-8 text. Everything is kept in
+ * arrays indexed by the unsigned byte value: the counts are a long[256],
+ * the code lengths and the canonical codes are int[256], and decoding is a
+ * single lookup in a table indexed by the next maxLength bits. There are no
+ * Strings, no maps and no charset decoding anywhere in the pipeline.
+ *
+ * Codes are built by LengthLimitedCode with at most MAX_CODE_LENGTH bits,
+ * which keeps the decoding table small (32K entries at most), and assigned
+ * canonically in (length, byte value) order, so the header only needs the
+ * length of each byte value: 256 lengths of 4 bits, HEADER_SIZE bytes.
+ *
+ * Compressed format (big endian), both in memory and in files:
+ *   int   MAGIC
+ *   long  number of bytes encoded
+ *   HEADER_SIZE bytes with the code lengths (see writeLengths)
+ *   then, the packed codes
+ *
+ * When compressing with a restart interval, the magic is INDEXED_MAGIC and the
+ * code lengths are followed by an int with the size of a RestartIndex and the
+ * index itself, so the stream can be decoded by several threads at once.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class ByteHuffmanCodec {
+
+	public static final int MAX_CODE_LENGTH = 15;
+	public static final int HEADER_SIZE = DenseFrequencyTable.BYTE_ALPHABET / 2;
+	private static final int MAGIC = 0x48425954; // "HBYT"
+	private static final int INDEXED_MAGIC = 0x48425952; // "HBYR"
+	private static final int ALPHABET = DenseFrequencyTable.BYTE_ALPHABET;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final int[] lengths;		// Code length of each byte value, 0 if it has no code
+	private final int[] codes;			// Canonical code of each byte value
+	private final int maxLength;
+	private final int[] decodeTable;	// (value << 4) | length, for every maxLength bit pattern, 0 if invalid
+
+	/**
+	 * Assigns canonical codes to the given lengths.
+	 *
+	 * @param lengths code length of each of the 256 byte values, 0 for values with no code
+	 * @throws IllegalArgumentException if the lengths can't form a prefix code
+	 */
+	public ByteHuffmanCodec(int[] lengths) {
+		if (lengths == null || lengths.length != ALPHABET)
+			throw new IllegalArgumentException("There must be a length for each of the " + ALPHABET + " byte values");
+		this.lengths = lengths.clone();
+		this.codes = new int[ALPHABET];
+
+		/* Gather the values with a code, CanonicalCode checks their lengths form a prefix code */
+		int[] values = new int[ALPHABET];
+		int[] valueLengths = new int[ALPHABET];
+		int present = 0;
+		for (int value = 0; value < ALPHABET; value++) {
+			int length = this.lengths[value];
+			if (length < 0 || length > MAX_CODE_LENGTH)
+				throw new IllegalArgumentException("Code lengths must be between 0 and " + MAX_CODE_LENGTH);
+			if (length > 0) {
+				values[present] = value;
+				valueLengths[present++] = length;
+			}
+		}
+		CanonicalCode canonical = new CanonicalCode(Arrays.copyOf(values, present), Arrays.copyOf(valueLengths, present));
+		this.maxLength = canonical.maxLength();
+
+		/* CanonicalCode orders codes by (length, byte value), each code fills its range of the decoding table */
+		this.decodeTable = new int[1 << maxLength];
+		for (int i = 0; i < present; i++) {
+			int value = values[i];
+			int length = this.lengths[value];
+			codes[value] = (int) canonical.code(value);
+			int first = codes[value] << (maxLength - length);
+			Arrays.fill(decodeTable, first, first + (1 << (maxLength - length)), (value << 4) | length);
+		}
+	}
+
+	/**
+	 * Builds the best code, with lengths bounded by MAX_CODE_LENGTH, for the given counts.
+	 *
+	 * @param counts number of times each of the 256 byte values appears, below 2^55
+	 * @return The codec for those counts
+	 */
+	public static ByteHuffmanCodec fromCounts(long[] counts) {
+		if (counts == null || counts.length != ALPHABET)
+			throw new IllegalArgumentException("There must be a count for each of the " + ALPHABET + " byte values");
+
+		/* Sort the present values by count, packing each count with its value into a single long */
+		long[] keys = new long[ALPHABET];
+		int present = 0;
+		for (int value = 0; value < ALPHABET; value++) {
+			if (counts[value] < 0 || counts[value] >= 1L << 55)
+				throw new IllegalArgumentException("Counts must be between 0 and 2^55");
+			if (counts[value] > 0)
+				keys[present++] = (counts[value] << 8) | value;
+		}
+		Arrays.sort(keys, 0, present);
+
+		long[] weights = new long[present];
+		for (int i = 0; i < present; i++)
+			weights[i] = keys[i] >>> 8;
+		int[] sortedLengths = LengthLimitedCode.limitedLengths(weights, MAX_CODE_LENGTH);
+
+		int[] lengths = new int[ALPHABET];
+		for (int i = 0; i < present; i++)
+			lengths[(int) (keys[i] & 0xFF)] = sortedLengths[i];
+		return new ByteHuffmanCodec(lengths);
+	}
+
+	/**
+	 * Reads the HEADER_SIZE bytes written by writeLengths.
+	 *
+	 * @param in buffer positioned at the lengths
+	 * @return The codec with the stored lengths
+	 * @throws IllegalArgumentException if the lengths can't form a prefix code
+	 */
+	public static ByteHuffmanCodec readLengths(ByteBuffer in) {
+		int[] lengths = new int[ALPHABET];
+		for (int value = 0; value < ALPHABET; value += 2) {
+			int pair = in.get() & 0xFF;
+			lengths[value] = pair >>> 4;
+			lengths[value + 1] = pair & 0xF;
+		}
+		return new ByteHuffmanCodec(lengths);
+	}
+
+	/**
+	 * Writes the code lengths as HEADER_SIZE bytes, two 4-bit lengths per byte.
+	 *
+	 * @param out buffer with at least HEADER_SIZE bytes remaining
+	 */
+	public void writeLengths(ByteBuffer out) {
+		for (int value = 0; value < ALPHABET; value += 2)
+			out.put((byte) ((lengths[value] << 4) | lengths[value + 1]));
+	}
+
+	/**
+	 * Encodes a range of bytes.
+	 *
+	 * @param data bytes to encode
+	 * @param offset index of the first byte to encode
+	 * @param length number of bytes to encode
+	 * @param out writer that receives the codes
+	 * @throws IllegalArgumentException if a byte has no code
+	 */
+	public void encode(byte[] data, int offset, int length, BitWriter out) {
+		for (int i = offset; i < offset + length; i++) {
+			int value = data[i] & 0xFF;
+			if (lengths[value] == 0)
+				throw new IllegalArgumentException("Byte " + value + " has no code");
+			out.write(codes[value], lengths[value]);
+		}
+	}
+
+	/**
+	 * Encodes the bytes of the buffer from its position to its limit, leaving the position untouched.
+	 *
+	 * @param data bytes to encode
+	 * @param out writer that receives the codes
+	 * @throws IllegalArgumentException if a byte has no code
+	 */
+	public void encode(ByteBuffer data, BitWriter out) {
+		for (int i = data.position(); i < data.limit(); i++) {
+			int value = data.get(i) & 0xFF;
+			if (lengths[value] == 0)
+				throw new IllegalArgumentException("Byte " + value + " has no code");
+			out.write(codes[value], lengths[value]);
+		}
+	}
+
+	/**
+	 * Encodes a range of bytes, recording a restart point every interval bytes.
+	 *
+	 * @param data bytes to encode
+	 * @param offset index of the first byte to encode
+	 * @param length number of bytes to encode
+	 * @param out writer that receives the codes
+	 * @param interval number of bytes between two restart points
+	 * @return The restart points, with bit offsets counted from where the writer was
+	 * @throws IllegalArgumentException if a byte has no code
+	 */
+	public RestartIndex encode(byte[] data, int offset, int length, BitWriter out, int interval) {
+		if (interval < 1)
+			throw new IllegalArgumentException("Interval must be positive");
+		long start = out.bitLength();
+		long[] bitOffsets = new long[(int) (((long) length + interval - 1) / interval)];
+		for (int i = 0; i < bitOffsets.length; i++) {
+			int from = offset + i * interval;
+			bitOffsets[i] = out.bitLength() - start;
+			encode(data, from, Math.min(interval, offset + length - from), out);
+		}
+		return new RestartIndex(interval, length, bitOffsets);
+	}
+
+	/**
+	 * Decodes bytes into the given range of the output array.
+	 *
+	 * @param in reader positioned at the first code
+	 * @param output array where the decoded bytes are stored
+	 * @param offset index of the first byte to store
+	 * @param length number of bytes to decode
+	 * @throws IllegalArgumentException if the bits don't match any code
+	 */
+	public void decode(BitReader in, byte[] output, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			int entry = decodeTable[in.peek(maxLength)];
+			if (entry == 0)
+				throw new IllegalArgumentException("Encoded data contains an invalid code");
+			in.skip(entry & 0xF);
+			output[i] = (byte) (entry >>> 4);
+		}
+	}
+
+	/**
+	 * Decodes a whole stream concurrently: every segment between two restart
+	 * points is decoded by its own task, straight into its place in the output.
+	 *
+	 * @param bits the encoded stream, starting at the first restart point
+	 * @param index restart points recorded while encoding the stream
+	 * @param output array where the decoded bytes are stored
+	 * @param offset index of output where the first byte is stored
+	 * @param executor executor that runs the segments
+	 * @throws IllegalArgumentException if the bits don't match any code
+	 * @throws InterruptedException if interrupted while waiting for the segments
+	 */
+	public void decode(PackedBits bits, RestartIndex index, byte[] output, int offset, ExecutorService executor) throws InterruptedException {
+		if (offset < 0 || offset + index.symbolCount() > output.length)
+			throw new IndexOutOfBoundsException();
+
+		List<Callable<Void>> segments = new ArrayList<Callable<Void>>(index.restartCount());
+		for (int i = 0; i < index.restartCount(); i++) {
+			int restart = i;
+			segments.add(() -> {
+				BitReader in = new BitReader(bits);
+				in.seek(index.bitOffset(restart));
+				decode(in, output, offset + (int) index.outputOffset(restart), index.segmentLength(restart));
+				return null;
+			});
+		}
+
+		for (Future<Void> segment : executor.invokeAll(segments)) {
+			try {
+				segment.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * @param value unsigned byte value
+	 * @return Length of the code of the value, 0 if it has no code
+	 */
+	public int length(int value) {
+		return lengths[value];
+	}
+
+	/**
+	 * @param value unsigned byte value
+	 * @return Canonical code of the value, right aligned
+	 */
+	public int code(int value) {
+		return codes[value];
+	}
+
+	/**
+	 * @return Length of the longest code
+	 */
+	public int maxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Compresses an array of bytes.
+	 *
+	 * @param data bytes to compress
+	 * @return The compressed bytes
+	 */
+	public static byte[] compress(byte[] data) {
+		return compress(data, 0);
+	}
+
+	/**
+	 * Compresses an array of bytes, recording a restart point every restartInterval
+	 * bytes so it can be decompressed by several threads.
+	 *
+	 * @param data bytes to compress
+	 * @param restartInterval number of bytes between two restart points, 0 to record none
+	 * @return The compressed bytes
+	 */
+	public static byte[] compress(byte[] data, int restartInterval) {
+		if (restartInterval < 0)
+			throw new IllegalArgumentException("Restart interval cannot be negative");
+		long[] counts = new long[ALPHABET];
+		for (byte b : data)
+			counts[b & 0xFF]++;
+		ByteHuffmanCodec codec = fromCounts(counts);
+
+		BitWriter writer = new BitWriter(data.length / 2 + 16);
+		byte[] index = new byte[0];
+		if (restartInterval == 0)
+			codec.encode(data, 0, data.length, writer);
+		else
+			index = codec.encode(data, 0, data.length, writer, restartInterval).toBytes();
+		PackedBits bits = writer.toPackedBits();
+
+		int indexSize = restartInterval == 0 ? 0 : 4 + index.length;
+		ByteBuffer result = ByteBuffer.allocate(12 + HEADER_SIZE + indexSize + bits.getByteLength());
+		result.putInt(restartInterval == 0 ? MAGIC : INDEXED_MAGIC).putLong(data.length);
+		codec.writeLengths(result);
+		if (restartInterval != 0)
+			result.putInt(index.length).put(index);
+		result.put(bits.getBytes(), 0, bits.getByteLength());
+		return result.array();
+	}
+
+	/**
+	 * Decompresses an array written by compress, with a single thread.
+	 *
+	 * @param compressed compressed bytes
+	 * @return The original bytes
+	 * @throws IllegalArgumentException if the input is not valid compressed data
+	 */
+	public static byte[] decompress(byte[] compressed) {
+		try {
+			return decompress(compressed, null);
+		} catch (InterruptedException e) {
+			/* Can't happen without an executor */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Decompresses an array written by compress. If it was compressed with restart
+	 * points, its segments are decoded concurrently on the executor.
+	 *
+	 * @param compressed compressed bytes
+	 * @param executor executor that decodes the segments, or null to decode with the calling thread
+	 * @return The original bytes
+	 * @throws IllegalArgumentException if the input is not valid compressed data
+	 * @throws InterruptedException if interrupted while waiting for the segments
+	 */
+	public static byte[] decompress(byte[] compressed, ExecutorService executor) throws InterruptedException {
+		ByteBuffer in = ByteBuffer.wrap(compressed);
+		int magic = compressed.length < 12 + HEADER_SIZE ? 0 : in.getInt();
+		if (magic != MAGIC && magic != INDEXED_MAGIC)
+			throw new IllegalArgumentException("Input is not compressed data");
+		long byteCount = in.getLong();
+		if (byteCount > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Data is too big for an array");
+		ByteHuffmanCodec codec = readLengths(in);
+
+		RestartIndex index = null;
+		if (magic == INDEXED_MAGIC) {
+			int indexSize = in.getInt();
+			index = RestartIndex.fromBytes(in.slice().limit(indexSize));
+			in.position(in.position() + indexSize);
+			if (index.symbolCount() != byteCount)
+				throw new IllegalArgumentException("Restart index does not match the data");
+		}
+
+		byte[] result = new byte[(int) byteCount];
+		byte[] bits = Arrays.copyOfRange(compressed, in.position(), compressed.length);
+		if (index == null || executor == null)
+			codec.decode(new BitReader(bits, 8L * bits.length), result, 0, result.length);
+		else
+			codec.decode(new PackedBits(bits, 8L * bits.length), index, result, 0, executor);
+		return result;
+	}
+
+	/**
+	 * Compresses any file. The input is memory mapped, so its bytes go
+	 * straight from the page cache into the counter and the encoder.
+	 *
+	 * @param input file to compress
+	 * @param output file where the compressed data is written (replaced if it exists)
+	 * @return Number of bytes compressed
+	 * @throws IOException if reading or writing any of the files fails
+	 */
+	public static long compress(Path input, Path output) throws IOException {
+		try (MappedInput in = new MappedInput(input);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			/* First pass: frequency of every byte value */
+			ByteHuffmanCodec codec = fromCounts(in.countBytes().counts());
+
+			ByteBuffer header = ByteBuffer.allocate(12 + HEADER_SIZE);
+			header.putInt(MAGIC).putLong(in.size());
+			codec.writeLengths(header);
+			StreamingCompressor.writeFully(out, header.flip());
+
+			/* Second pass: encode the mapped windows */
+			BitWriter writer = new BitWriter(out, BUFFER_SIZE);
+			in.forEachWindow((window, offset) -> codec.encode(window, writer));
+			writer.finish();
+			return in.size();
+		}
+	}
+
+	/**
+	 * Decompresses a file written by compress.
+	 *
+	 * @param input compressed file
+	 * @param output file where the original bytes are written (replaced if it exists)
+	 * @return Number of bytes decompressed
+	 * @throws IOException if reading or writing any of the files fails, or the input is not a compressed file
+	 */
+	public static long decompress(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer header = StreamingCompressor.readFully(in, 12 + HEADER_SIZE);
+			if (header.getInt() != MAGIC)
+				throw new IOException("Input is not a compressed file");
+			long byteCount = header.getLong();
+			ByteHuffmanCodec codec = readLengths(header);
+
+			/* Decode a buffer at a time and write it out */
+			BitReader reader = new BitReader(in, BUFFER_SIZE);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			for (long done = 0; done < byteCount; ) {
+				int length = (int) Math.min(buffer.length, byteCount - done);
+				codec.decode(reader, buffer, 0, length);
+				StreamingCompressor.writeFully(out, ByteBuffer.wrap(buffer, 0, length));
+				done += length;
+			}
+			return byteCount;
+		}
+	}
+}
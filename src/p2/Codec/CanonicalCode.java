@@ -0,0 +1,329 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+import p2.DataStructures.Tree.BTNode;
+
+/**
+ * Canonical Huffman Code
+ *
+ * A Huffman tree is only needed to know how long the code of each symbol is.
+ * Once the lengths are known, the codes themselves can be assigned in a fixed
+ * (canonical) order: sorting symbols by code length and then by symbol, each code
+ * is the previous one plus 1, shifted left whenever the length grows. The result
+ * is just as good as the tree's codes, but it is fully determined by the lengths, so:
+ *   - the header only needs the length of each symbol (about one byte per symbol)
+ *     instead of the whole code table or the tree.
+ *   - decoding only needs, per length, the first code and where its symbols start,
+ *     plus a lookup table resolving all the short codes at once.
+ *
+ * Symbols are non-negative ints (a byte value, a char or a code point),
+ * and codes can be at most MAX_LENGTH bits long.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class CanonicalCode {
+
+	public static final int MAX_LENGTH = 64;
+	private static final int LOOKUP_BITS = 10;
+
+	/* Header formats */
+	private static final int DENSE = 0;		// A length byte for every symbol in a range, 0 if absent
+	private static final int SPARSE = 1;	// A gap from the previous symbol and a length byte per symbol
+
+	private final int[] sorted;		// Symbols sorted by code length, then by symbol
+	private final int[] count;		// Number of codes of each length
+	private final int maxLength;
+
+	/* Encoding, indexed by symbol */
+	private final long[] codeOf;
+	private final byte[] lengthOf;
+
+	/* Decoding: entries are (index in sorted << 8) | length, 0 for codes longer than the table */
+	private final int[] lookup;
+	private final int lookupBits;
+
+	/**
+	 * Builds the canonical code for the given code lengths.
+	 *
+	 * @param symbols the symbols, all different and non-negative
+	 * @param lengths the code length of each symbol, between 1 and MAX_LENGTH
+	 * @throws IllegalArgumentException if the lengths can't form a prefix code
+	 */
+	public CanonicalCode(int[] symbols, int[] lengths) {
+		if (symbols.length != lengths.length)
+			throw new IllegalArgumentException("Every symbol needs a length");
+
+		/* Sort the symbols by (length, symbol), packed into longs to sort primitives */
+		long[] keys = new long[symbols.length];
+		int maxSymbol = -1, longest = 0;
+		for (int i = 0; i < symbols.length; i++) {
+			if (symbols[i] < 0)
+				throw new IllegalArgumentException("Symbols cannot be negative");
+			if (lengths[i] < 1 || lengths[i] > MAX_LENGTH)
+				throw new IllegalArgumentException("Code lengths must be between 1 and " + MAX_LENGTH);
+			keys[i] = ((long) lengths[i] << 32) | symbols[i];
+			maxSymbol = Math.max(maxSymbol, symbols[i]);
+			longest = Math.max(longest, lengths[i]);
+		}
+		Arrays.sort(keys);
+		maxLength = longest;
+
+		sorted = new int[symbols.length];
+		count = new int[maxLength + 1];
+		codeOf = new long[maxSymbol + 1];
+		lengthOf = new byte[maxSymbol + 1];
+
+		/* Assign the codes in canonical order */
+		long code = 0;
+		int previousLength = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int symbol = (int) keys[i];
+			int length = (int) (keys[i] >>> 32);
+			if (lengthOf[symbol] != 0)
+				throw new IllegalArgumentException("Symbols must be different");
+
+			if (i > 0) {
+				code++;
+				// Running out of codes of the previous length means the lengths are over-subscribed
+				if (previousLength < 64 ? code >>> previousLength != 0 : code == 0)
+					throw new IllegalArgumentException("Code lengths do not form a prefix code");
+				code <<= length - previousLength;
+			}
+
+			sorted[i] = symbol;
+			count[length]++;
+			codeOf[symbol] = code;
+			lengthOf[symbol] = (byte) length;
+			previousLength = length;
+		}
+
+		/* Lookup table resolving every code up to lookupBits long with a single read */
+		lookupBits = Math.max(1, Math.min(LOOKUP_BITS, maxLength));
+		lookup = new int[1 << lookupBits];
+		for (int i = 0; i < sorted.length; i++) {
+			int length = lengthOf[sorted[i]];
+			if (length > lookupBits)
+				break; // Sorted by length, so the rest are longer too
+			int first = (int) (codeOf[sorted[i]] << (lookupBits - length));
+			for (int j = 0; j < 1 << (lookupBits - length); j++)
+				lookup[first + j] = (i << 8) | length;
+		}
+	}
+
+	/**
+	 * Builds the canonical code for the symbols of a Huffman tree, keeping only
+	 * how deep each leaf is. Every leaf must hold a single character (or code point).
+	 *
+	 * @param huffmanRoot root of the tree, as returned by HuffmanCoding.huffman_tree
+	 * @return The canonical code with the same code lengths as the tree
+	 * @throws IllegalArgumentException if a leaf holds more than one character
+	 */
+	public static CanonicalCode fromTree(BTNode<Integer, String> huffmanRoot) {
+		int leaves = countLeaves(huffmanRoot);
+		int[] symbols = new int[leaves];
+		int[] lengths = new int[leaves];
+		collectLengths(huffmanRoot, 0, symbols, lengths, new int[1]);
+
+		/* A tree with a single leaf still needs a 1 bit code */
+		if (leaves == 1)
+			lengths[0] = 1;
+		return new CanonicalCode(symbols, lengths);
+	}
+
+	/**
+	 * Reads a code written by toHeader, leaving the buffer right after it.
+	 *
+	 * @param in buffer positioned at the start of the header
+	 * @return The canonical code described by the header
+	 * @throws IllegalArgumentException if the header is not valid
+	 */
+	public static CanonicalCode fromHeader(ByteBuffer in) {
+		int format = in.get();
+		int symbolCount = VarInts.read(in);
+		int[] symbols = new int[symbolCount];
+		int[] lengths = new int[symbolCount];
+
+		if (format == DENSE) {
+			int first = VarInts.read(in);
+			int span = VarInts.read(in);
+			for (int i = 0, s = 0; i < span; i++) {
+				int length = in.get() & 0xFF;
+				if (length == 0)
+					continue;
+				if (s == symbolCount)
+					throw new IllegalArgumentException("Header has more symbols than expected");
+				symbols[s] = first + i;
+				lengths[s++] = length;
+			}
+		}
+		else if (format == SPARSE) {
+			for (int i = 0, symbol = -1; i < symbolCount; i++) {
+				symbol += VarInts.read(in) + 1;
+				symbols[i] = symbol;
+				lengths[i] = in.get() & 0xFF;
+			}
+		}
+		else
+			throw new IllegalArgumentException("Unknown header format");
+
+		return new CanonicalCode(symbols, lengths);
+	}
+
+	/**
+	 * Serializes the code as a compact header holding only the code lengths.
+	 * Consecutive symbols (like a byte alphabet) take one byte each, scattered
+	 * ones take one byte plus the gap from the previous symbol.
+	 *
+	 * @return The header bytes
+	 */
+	public byte[] toHeader() {
+		int[] symbols = symbols();
+		int first = symbols.length == 0 ? 0 : symbols[0];
+		int span = symbols.length == 0 ? 0 : symbols[symbols.length - 1] - first + 1;
+
+		/* Work out the size of the sparse form to pick the smaller one */
+		int sparseSize = 0;
+		for (int i = 0, previous = -1; i < symbols.length; previous = symbols[i++])
+			sparseSize += VarInts.size(symbols[i] - previous - 1) + 1;
+		int denseSize = VarInts.size(first) + VarInts.size(span) + span;
+
+		ByteBuffer out = ByteBuffer.allocate(1 + 5 + Math.min(sparseSize, denseSize));
+		if (denseSize <= sparseSize) {
+			out.put((byte) DENSE);
+			VarInts.write(out, symbols.length);
+			VarInts.write(out, first);
+			VarInts.write(out, span);
+			for (int symbol = first; symbol < first + span; symbol++)
+				out.put(lengthOf[symbol]);
+		}
+		else {
+			out.put((byte) SPARSE);
+			VarInts.write(out, symbols.length);
+			for (int i = 0, previous = -1; i < symbols.length; previous = symbols[i++]) {
+				VarInts.write(out, symbols[i] - previous - 1);
+				out.put(lengthOf[symbols[i]]);
+			}
+		}
+		return Arrays.copyOf(out.array(), out.position());
+	}
+
+	/**
+	 * Writes the code of the given symbol.
+	 *
+	 * @param symbol symbol to encode
+	 * @param out writer receiving the code
+	 * @throws IllegalArgumentException if the symbol has no code
+	 */
+	public void encode(int symbol, BitWriter out) {
+		int length = length(symbol);
+		if (length == 0)
+			throw new IllegalArgumentException("Symbol " + symbol + " has no code");
+		out.write(codeOf[symbol], length);
+	}
+
+	/**
+	 * Decodes the next symbol from the reader. Short codes are resolved with the
+	 * lookup table, longer ones by checking, for each length, if the bits read so far
+	 * fall in the range of codes of that length.
+	 *
+	 * @param in reader positioned at the start of a code
+	 * @return The symbol decoded
+	 * @throws IllegalArgumentException if the bits don't match any code
+	 */
+	public int decode(BitReader in) {
+		int entry = lookup[in.peek(lookupBits)];
+		if (entry != 0) {
+			in.skip(entry & 0xFF);
+			return sorted[entry >>> 8];
+		}
+
+		long code = 0, first = 0;
+		int index = 0;
+		for (int length = 1; length <= maxLength; length++) {
+			code |= in.read(1);
+			if (code >= first && code - first < count[length])
+				return sorted[index + (int) (code - first)];
+			index += count[length];
+			first = (first + count[length]) << 1;
+			code <<= 1;
+		}
+		throw new IllegalArgumentException("Encoded data contains an invalid code");
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return The length of the code of the symbol, 0 if it has no code
+	 */
+	public int length(int symbol) {
+		return symbol >= 0 && symbol < lengthOf.length ? lengthOf[symbol] : 0;
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return The code of the symbol, right aligned (only meaningful if length(symbol) &gt; 0)
+	 */
+	public long code(int symbol) {
+		return symbol >= 0 && symbol < codeOf.length ? codeOf[symbol] : 0;
+	}
+
+	/**
+	 * @return Length of the longest code
+	 */
+	public int maxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * @return Every symbol with a code, in ascending order
+	 */
+	public int[] symbols() {
+		int[] result = sorted.clone();
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Converts the code into the prefix code map used by HuffmanCoding,
+	 * so it can be used with encode, encode_packed or decode_packed.
+	 *
+	 * @return Map from symbol (as a String) to its code (as '0' and '1' characters)
+	 */
+	public Map<String, String> toMap() {
+		Map<String, String> result = new HashTableOA<String, String>();
+		for (int symbol : sorted) {
+			StringBuilder code = new StringBuilder();
+			for (int i = lengthOf[symbol] - 1; i >= 0; i--)
+				code.append((codeOf[symbol] >>> i) & 1);
+			result.put(new String(Character.toChars(symbol)), code.toString());
+		}
+		return result;
+	}
+
+	private static int countLeaves(BTNode<Integer, String> node) {
+		if (node == null)
+			return 0;
+		if (node.getLeftChild() == null && node.getRightChild() == null)
+			return 1;
+		return countLeaves(node.getLeftChild()) + countLeaves(node.getRightChild());
+	}
+
+	/* Stores the symbol and depth of every leaf, next holds the next free position */
+	private static void collectLengths(BTNode<Integer, String> node, int depth, int[] symbols, int[] lengths, int[] next) {
+		if (node == null)
+			return;
+		if (node.getLeftChild() == null && node.getRightChild() == null) {
+			String value = node.getValue();
+			if (value.codePointCount(0, value.length()) != 1)
+				throw new IllegalArgumentException("Leaves must hold a single character");
+			symbols[next[0]] = value.codePointAt(0);
+			lengths[next[0]++] = depth;
+			return;
+		}
+		collectLengths(node.getLeftChild(), depth + 1, symbols, lengths, next);
+		collectLengths(node.getRightChild(), depth + 1, symbols, lengths, next);
+	}
+}
@@ -0,0 +1,239 @@
+package p2.Codec;
+
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+import p2.DataStructures.FrequencyTable.SparseFrequencyTable;
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Code Table Cache
+ *
+ * Building a code takes much longer than encoding a payload of a few KB with it,
+ * and payloads of the same kind have almost the same frequencies. This cache keeps
+ * the codes built for the most recently seen distributions, up to a given number
+ * of them, and hands back one of them instead of building a new code when it is
+ * good enough for the new distribution.
+ *
+ * Distributions are looked up by a fingerprint of their quantized shape: every
+ * symbol together with its ideal code length log2(total / count), rounded. Two
+ * distributions with the same fingerprint would get about the same code, but
+ * before reusing a code the cache checks it:
+ *
+ * - It must have a code for every symbol of the new distribution.
+ * - Encoding the new distribution with it can't take more than maxExtraBits
+ *   bits per symbol over its entropy, besides the bits per symbol the code
+ *   already took over the entropy of the distribution it was built for
+ *   (which is exactly what a new code would cost if nothing had changed).
+ *
+ * Otherwise a new code is built and takes the place of the old one. When the cache
+ * is full, the code used least recently is evicted. Since a CanonicalCode both
+ * encodes and decodes, the same cached code serves as the decoder.
+ *
+ * All the methods are synchronized, so one cache can be shared by several threads.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class CodeTableCache {
+
+	/* A cached code, linked into the recency list */
+	private static class Entry {
+		private final long fingerprint;
+		private final CanonicalCode code;
+		private final double redundancy;	// Bits per symbol over the entropy of the distribution the code was built for
+		private Entry newer, older;
+
+		public Entry(long fingerprint, CanonicalCode code, double redundancy) {
+			this.fingerprint = fingerprint;
+			this.code = code;
+			this.redundancy = redundancy;
+		}
+	}
+
+	public static final double DEFAULT_MAX_EXTRA_BITS = 0.05;
+	private static final int DEFAULT_CAPACITY = 256;
+	private static final double LN_2 = Math.log(2);
+
+	private final int capacity;
+	private final double maxExtraBits;
+	private final Map<Long, Entry> entries;
+	private Entry newest, oldest;	// Ends of the recency list, null when empty
+	private long hits;
+	private long rejections;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param capacity most codes to keep
+	 * @param maxExtraBits most bits per symbol a reused code can take over what a new one would
+	 */
+	public CodeTableCache(int capacity, double maxExtraBits) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		if (!(maxExtraBits >= 0))
+			throw new IllegalArgumentException("Extra bits can't be negative");
+
+		this.capacity = capacity;
+		this.maxExtraBits = maxExtraBits;
+		this.entries = new HashTableOA<Long, Entry>(2 * capacity, (key) -> Long.hashCode(key));
+	}
+
+	public CodeTableCache(int capacity) {
+		this(capacity, DEFAULT_MAX_EXTRA_BITS);
+	}
+
+	public CodeTableCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Returns a code for the given frequencies, reusing a cached one if it is good enough.
+	 *
+	 * @param frequencies frequencies of the symbols to encode
+	 * @return A code with a codeword for every symbol in frequencies
+	 */
+	public synchronized CanonicalCode get(FrequencyTable frequencies) {
+		if (frequencies == null || frequencies.isEmpty())
+			throw new IllegalArgumentException("There must be at least one symbol to encode");
+
+		int[] symbols = frequencies.symbols();
+		long total = frequencies.total();
+
+		/* Fingerprint of the rounded ideal code length of each symbol, along with the entropy in bits */
+		long fingerprint = 0;
+		double entropyBits = 0;
+		for (int symbol : symbols) {
+			long count = frequencies.get(symbol);
+			double idealLength = Math.log((double) total / count) / LN_2;
+			entropyBits += count * idealLength;
+			fingerprint = (fingerprint ^ (((long) symbol << 8) | Math.round(idealLength))) * 0x9E3779B97F4A7C15L;
+		}
+		fingerprint = mix(fingerprint ^ symbols.length);
+
+		Entry entry = entries.get(fingerprint);
+		if (entry != null) {
+			if (fits(entry, frequencies, symbols, entropyBits)) {
+				hits++;
+				moveToFront(entry);
+				return entry.code;
+			}
+			rejections++;
+			unlink(entry);
+			entries.remove(fingerprint);
+		}
+
+		/* Not cached (or not good enough), so build the code and make room for it */
+		misses++;
+		LengthLimitedCode built = LengthLimitedCode.build(frequencies, StreamingCompressor.MAX_CODE_LENGTH);
+		entry = new Entry(fingerprint, built.getCode(), (built.getEncodedBits() - entropyBits) / total);
+		if (entries.size() == capacity) {
+			evictions++;
+			entries.remove(oldest.fingerprint);
+			unlink(oldest);
+		}
+		entries.put(fingerprint, entry);
+		moveToFront(entry);
+		return entry.code;
+	}
+
+	/**
+	 * Returns a code for the characters of a payload, as counted by HuffmanCoding.compute_frequencies.
+	 *
+	 * @param payload text to encode
+	 * @return A code with a codeword for every character in payload
+	 */
+	public CanonicalCode get(CharSequence payload) {
+		FrequencyTable frequencies = new SparseFrequencyTable();
+		for (int i = 0; i < payload.length(); i++)
+			frequencies.increment(payload.charAt(i));
+		return get(frequencies);
+	}
+
+	/* Whether the cached code can encode every symbol with at most maxExtraBits more bits per symbol than a new one */
+	private boolean fits(Entry entry, FrequencyTable frequencies, int[] symbols, double entropyBits) {
+		long bits = 0;
+		for (int symbol : symbols) {
+			int length = entry.code.length(symbol);
+			if (length == 0)
+				return false;
+			bits += length * frequencies.get(symbol);
+		}
+		return (bits - entropyBits) / frequencies.total() <= entry.redundancy + maxExtraBits;
+	}
+
+	private void moveToFront(Entry entry) {
+		if (entry == newest)
+			return;
+		unlink(entry);
+		entry.older = newest;
+		if (newest != null)
+			newest.newer = entry;
+		newest = entry;
+		if (oldest == null)
+			oldest = entry;
+	}
+
+	private void unlink(Entry entry) {
+		if (entry.newer != null)
+			entry.newer.older = entry.older;
+		else if (newest == entry)
+			newest = entry.older;
+		if (entry.older != null)
+			entry.older.newer = entry.newer;
+		else if (oldest == entry)
+			oldest = entry.newer;
+		entry.newer = entry.older = null;
+	}
+
+	/* Final mix of MurmurHash3's 64 bit version, so every bit of the fingerprint depends on every symbol */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	/**
+	 * @return Number of codes in the cache
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Number of lookups answered with a cached code
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return Number of lookups that had to build a new code
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return Number of misses that found a code with the same fingerprint, but too costly for the new frequencies
+	 */
+	public synchronized long getRejections() {
+		return rejections;
+	}
+
+	/**
+	 * @return Number of codes evicted to make room for new ones
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Removes every code and sets the counters back to 0.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		newest = oldest = null;
+		hits = misses = rejections = evictions = 0;
+	}
+}
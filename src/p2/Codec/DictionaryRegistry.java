@@ -0,0 +1,82 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import p2.DataStructures.Map.ConcurrentHashTable;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Dictionary Registry
+ *
+ * The static dictionaries known to an application, by id. Both sides of a
+ * connection load the same dictionary files once, and from then on a message
+ * only needs the id of the dictionary it was compressed with (which the
+ * application can send however it likes) to be decompressed.
+ *
+ * Lookups don't lock, so a registry can be shared by every thread.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class DictionaryRegistry {
+
+	private final Map<Integer, StaticDictionary> dictionaries = new ConcurrentHashTable<Integer, StaticDictionary>();
+
+	/**
+	 * Adds a dictionary, replacing any other with the same id.
+	 *
+	 * @param dictionary dictionary to add
+	 */
+	public void register(StaticDictionary dictionary) {
+		if (dictionary == null)
+			throw new IllegalArgumentException("Dictionary cannot be null");
+		dictionaries.put(dictionary.id(), dictionary);
+	}
+
+	/**
+	 * Loads a dictionary file written by StaticDictionary.save and adds it.
+	 *
+	 * @param file dictionary file
+	 * @return The dictionary loaded
+	 * @throws IOException if the file can't be read or is not a dictionary
+	 */
+	public StaticDictionary load(Path file) throws IOException {
+		StaticDictionary dictionary = StaticDictionary.load(file);
+		register(dictionary);
+		return dictionary;
+	}
+
+	/**
+	 * @param id id of the dictionary
+	 * @return The dictionary with that id
+	 * @throws IllegalArgumentException if there is no dictionary with that id
+	 */
+	public StaticDictionary get(int id) {
+		StaticDictionary dictionary = dictionaries.get(id);
+		if (dictionary == null)
+			throw new IllegalArgumentException("Unknown dictionary " + id);
+		return dictionary;
+	}
+
+	/**
+	 * Encodes a message with the dictionary of the given id.
+	 *
+	 * @param id id of the dictionary
+	 * @param message text to encode
+	 * @return The encoded message, with no header
+	 */
+	public byte[] compress(int id, CharSequence message) {
+		return get(id).compress(message);
+	}
+
+	/**
+	 * Decodes a message encoded with the dictionary of the given id.
+	 *
+	 * @param id id of the dictionary the message was encoded with
+	 * @param compressed the encoded message
+	 * @return The original message
+	 */
+	public String decompress(int id, byte[] compressed) {
+		return get(id).decompress(compressed);
+	}
+}
@@ -0,0 +1,136 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+
+/**
+ * Parallel Frequency Counter
+ *
+ * Counts symbol frequencies using every core available. The input is split
+ * in halves recursively until the pieces are small enough, each piece is counted
+ * into its own private histogram (so threads never share a counter), and the
+ * histograms are added back together as the recursion unwinds, giving a
+ * tree shaped reduction. The result is exactly the same as counting sequentially.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class FrequencyCounter {
+
+	/* Pieces smaller than this are counted by a single thread */
+	private static final int DEFAULT_THRESHOLD = 1 << 20;
+
+	/* Counts the symbols in positions [from, to) into the histogram */
+	private interface RangeCounter {
+		void count(int from, int to, long[] histogram);
+	}
+
+	/**
+	 * Counts a range of the input, splitting it in two while it's above the threshold.
+	 * @author Fabian Ruiz - fabianruiz3
+	 */
+	@SuppressWarnings("serial")
+	private static class CountTask extends RecursiveTask<long[]> {
+		private final RangeCounter counter;
+		private final int from, to, alphabetSize, threshold;
+
+		public CountTask(RangeCounter counter, int from, int to, int alphabetSize, int threshold) {
+			this.counter = counter;
+			this.from = from;
+			this.to = to;
+			this.alphabetSize = alphabetSize;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= threshold) {
+				long[] histogram = new long[alphabetSize];
+				counter.count(from, to, histogram);
+				return histogram;
+			}
+
+			int middle = (from + to) >>> 1;
+			CountTask left = new CountTask(counter, from, middle, alphabetSize, threshold);
+			CountTask right = new CountTask(counter, middle, to, alphabetSize, threshold);
+			left.fork();
+			long[] result = right.compute();
+			long[] other = left.join();
+			for (int i = 0; i < alphabetSize; i++)
+				result[i] += other[i];
+			return result;
+		}
+	}
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * @param pool pool running the counting tasks
+	 * @param threshold size of the pieces counted by a single thread, at least 1
+	 */
+	public FrequencyCounter(ForkJoinPool pool, int threshold) {
+		if (pool == null)
+			throw new IllegalArgumentException("Pool cannot be null");
+		if (threshold < 1)
+			throw new IllegalArgumentException("Threshold must be at least 1");
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+	public FrequencyCounter() {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Counts every character of the input.
+	 *
+	 * @param input characters to count
+	 * @return Table with the frequency of each character
+	 */
+	public DenseFrequencyTable countChars(CharSequence input) {
+		return count((from, to, histogram) -> {
+			for (int i = from; i < to; i++)
+				histogram[input.charAt(i)]++;
+		}, input.length(), DenseFrequencyTable.CHAR_ALPHABET);
+	}
+
+	/**
+	 * Counts every byte of the input.
+	 *
+	 * @param input bytes to count
+	 * @return Table with the frequency of each unsigned byte value
+	 */
+	public DenseFrequencyTable countBytes(byte[] input) {
+		return count((from, to, histogram) -> {
+			for (int i = from; i < to; i++)
+				histogram[input[i] & 0xFF]++;
+		}, input.length, DenseFrequencyTable.BYTE_ALPHABET);
+	}
+
+	/**
+	 * Counts every byte between the position and the limit of the buffer,
+	 * which may be a memory mapped region. The buffer itself is not modified.
+	 *
+	 * @param input bytes to count
+	 * @return Table with the frequency of each unsigned byte value
+	 */
+	public DenseFrequencyTable countBytes(ByteBuffer input) {
+		int start = input.position();
+		return count((from, to, histogram) -> {
+			for (int i = from; i < to; i++)
+				histogram[input.get(start + i) & 0xFF]++;
+		}, input.remaining(), DenseFrequencyTable.BYTE_ALPHABET);
+	}
+
+	private DenseFrequencyTable count(RangeCounter counter, int length, int alphabetSize) {
+		CountTask task = new CountTask(counter, 0, length, alphabetSize, threshold);
+
+		/* Small inputs are not worth handing over to the pool */
+		if (length <= threshold)
+			return new DenseFrequencyTable(task.compute());
+		return new DenseFrequencyTable(pool.invoke(task));
+	}
+}
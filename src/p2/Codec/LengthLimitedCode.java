@@ -0,0 +1,231 @@
+package p2.Codec;
+
+import java.util.Arrays;
+
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+
+/**
+ * Length Limited Huffman Code
+ *
+ * The tree built by HuffmanCoding.huffman_tree has no depth bound: very skewed
+ * frequencies (like a Fibonacci sequence) give codes as long as the alphabet.
+ * This builder uses the package-merge algorithm to find the code lengths that
+ * encode the input in as few bits as possible while never going over maxLength bits,
+ * then turns them into a CanonicalCode.
+ *
+ * Package-merge, in short: every symbol is a "coin" whose value is its frequency.
+ * For each of the maxLength levels, the cheapest coins of the previous level are
+ * paired up into packages, and the packages are merged with the original coins.
+ * Taking the 2n - 2 cheapest items of the last level, the number of times a symbol
+ * shows up inside them (directly or inside packages) is the length of its code.
+ *
+ * Along with the code, the builder reports how many bits the input takes with it
+ * and with an unbounded Huffman code, so the cost of the bound is known.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class LengthLimitedCode {
+
+	private final CanonicalCode code;
+	private final long encodedBits;
+	private final long optimalBits;
+
+	private LengthLimitedCode(CanonicalCode code, long encodedBits, long optimalBits) {
+		this.code = code;
+		this.encodedBits = encodedBits;
+		this.optimalBits = optimalBits;
+	}
+
+	/**
+	 * Builds the best code for the given frequencies with no code longer than maxLength bits.
+	 *
+	 * @param frequencies frequency of each symbol
+	 * @param maxLength longest code allowed, between 1 and CanonicalCode.MAX_LENGTH
+	 * @return The code, along with the cost of the length bound
+	 * @throws IllegalArgumentException if there are more than 2^maxLength symbols
+	 */
+	public static LengthLimitedCode build(FrequencyTable frequencies, int maxLength) {
+		if (maxLength < 1 || maxLength > CanonicalCode.MAX_LENGTH)
+			throw new IllegalArgumentException("Max length must be between 1 and " + CanonicalCode.MAX_LENGTH);
+
+		/* Sort the symbols by frequency, the way both algorithms need them */
+		int[] symbols = sortByFrequency(frequencies);
+		long[] weights = new long[symbols.length];
+		for (int i = 0; i < symbols.length; i++)
+			weights[i] = frequencies.get(symbols[i]);
+
+		int[] lengths = limitedLengths(weights, maxLength);
+		int[] optimal = optimalLengths(weights);
+
+		long encodedBits = 0, optimalBits = 0;
+		for (int i = 0; i < weights.length; i++) {
+			encodedBits += weights[i] * lengths[i];
+			optimalBits += weights[i] * optimal[i];
+		}
+		return new LengthLimitedCode(new CanonicalCode(symbols, lengths), encodedBits, optimalBits);
+	}
+
+	/**
+	 * Package-merge: the optimal code lengths where no length goes over maxLength.
+	 *
+	 * @param weights frequencies in ascending order
+	 * @param maxLength longest code allowed
+	 * @return The code length of each weight
+	 * @throws IllegalArgumentException if there are more than 2^maxLength weights
+	 */
+	public static int[] limitedLengths(long[] weights, int maxLength) {
+		int n = weights.length;
+		int[] lengths = new int[n];
+		if (n == 0)
+			return lengths;
+		if (n == 1) {
+			lengths[0] = 1;
+			return lengths;
+		}
+		if (maxLength < 63 && n > 1L << maxLength)
+			throw new IllegalArgumentException(n + " symbols don't fit in codes of " + maxLength + " bits");
+
+		/**
+		 * Level 0 only has the coins. Every next level merges the coins with the
+		 * packages made by pairing up the items of the previous level. Only the
+		 * 2n - 2 cheapest items of a level are ever needed, so levels are cut there.
+		 */
+		int limit = 2 * n - 2;
+		long[][] levelWeights = new long[maxLength][];
+		boolean[][] isPackage = new boolean[maxLength][];
+		levelWeights[0] = weights.clone();
+		isPackage[0] = new boolean[n];
+
+		for (int level = 1; level < maxLength; level++) {
+			long[] previous = levelWeights[level - 1];
+			int packages = previous.length / 2;
+			int size = Math.min(n + packages, limit);
+			long[] current = new long[size];
+			boolean[] packaged = new boolean[size];
+
+			/* Merge coins and packages, coins first on ties */
+			int coin = 0, pack = 0;
+			for (int i = 0; i < size; i++) {
+				if (pack == packages || (coin < n && weights[coin] <= previous[2 * pack] + previous[2 * pack + 1]))
+					current[i] = weights[coin++];
+				else {
+					current[i] = previous[2 * pack] + previous[2 * pack + 1];
+					packaged[i] = true;
+					pack++;
+				}
+			}
+			levelWeights[level] = current;
+			isPackage[level] = packaged;
+		}
+
+		/**
+		 * The selected items of each level are always a prefix of it: its coins are
+		 * the cheapest symbols (each one gets a bit longer), and each package selected
+		 * means two more items are selected in the level below.
+		 */
+		int selected = limit;
+		for (int level = maxLength - 1; level >= 0 && selected > 0; level--) {
+			int packages = 0;
+			for (int i = 0; i < selected; i++)
+				if (isPackage[level][i])
+					packages++;
+			for (int i = 0; i < selected - packages; i++)
+				lengths[i]++;
+			selected = 2 * packages;
+		}
+		return lengths;
+	}
+
+	/**
+	 * Plain Huffman code lengths, with no bound, computed on arrays: since the
+	 * weights are sorted, the merged nodes come out in ascending order too, so
+	 * the two cheapest nodes are always at the front of either the leaves or
+	 * the merged nodes, and no priority queue is needed.
+	 *
+	 * @param weights frequencies in ascending order
+	 * @return The code length of each weight
+	 */
+	public static int[] optimalLengths(long[] weights) {
+		int n = weights.length;
+		int[] lengths = new int[n];
+		if (n == 0)
+			return lengths;
+		if (n == 1) {
+			lengths[0] = 1;
+			return lengths;
+		}
+
+		/* Nodes 0 to n - 1 are the leaves, n to 2n - 2 the merged ones */
+		long[] weight = Arrays.copyOf(weights, 2 * n - 1);
+		int[] parent = new int[2 * n - 1];
+		int leaf = 0, merged = n;
+		for (int next = n; next < 2 * n - 1; next++) {
+			for (int child = 0; child < 2; child++) {
+				int smallest;
+				if (merged == next || (leaf < n && weight[leaf] <= weight[merged]))
+					smallest = leaf++;
+				else
+					smallest = merged++;
+				parent[smallest] = next;
+				weight[next] += weight[smallest];
+			}
+		}
+
+		/* Depth of every node is one more than its parent's, the root being the last node */
+		int[] depth = new int[2 * n - 1];
+		for (int node = 2 * n - 3; node >= 0; node--)
+			depth[node] = depth[parent[node]] + 1;
+		System.arraycopy(depth, 0, lengths, 0, n);
+		return lengths;
+	}
+
+	/**
+	 * @return The canonical code with the limited lengths
+	 */
+	public CanonicalCode getCode() {
+		return code;
+	}
+
+	/**
+	 * @return Bits needed to encode the input with this code
+	 */
+	public long getEncodedBits() {
+		return encodedBits;
+	}
+
+	/**
+	 * @return Bits needed to encode the input with an unbounded Huffman code
+	 */
+	public long getOptimalBits() {
+		return optimalBits;
+	}
+
+	/**
+	 * @return Extra bits paid because of the length bound
+	 */
+	public long getExtraBits() {
+		return encodedBits - optimalBits;
+	}
+
+	/**
+	 * @return Extra bits paid because of the length bound, as a percentage of the unbounded size
+	 */
+	public double getOverhead() {
+		return optimalBits == 0 ? 0 : 100.0 * getExtraBits() / optimalBits;
+	}
+
+	/* Symbols of the table sorted by frequency, ties broken by symbol */
+	private static int[] sortByFrequency(FrequencyTable frequencies) {
+		int[] symbols = frequencies.symbols();
+		Integer[] order = new Integer[symbols.length];
+		for (int i = 0; i < symbols.length; i++)
+			order[i] = symbols[i];
+		Arrays.sort(order, (a, b) -> {
+			int comparison = Long.compare(frequencies.get(a), frequencies.get(b));
+			return comparison != 0 ? comparison : Integer.compare(a, b);
+		});
+		for (int i = 0; i < symbols.length; i++)
+			symbols[i] = order[i];
+		return symbols;
+	}
+}
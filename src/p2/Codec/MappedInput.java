@@ -0,0 +1,113 @@
+package p2.Codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+
+/**
+ * Memory Mapped Input
+ *
+ * Gives access to the raw bytes of a file through memory mapped windows,
+ * so the frequency counter and the encoder read straight from the page cache
+ * with no charset decoding and no copy of the file on the heap.
+ *
+ * A single MappedByteBuffer can't go over 2 GB, so bigger files are
+ * mapped one window at a time, each one covering at most windowSize bytes.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class MappedInput implements Closeable {
+
+	static final long DEFAULT_WINDOW_SIZE = 1L << 26;
+
+	private final FileChannel channel;
+	private final long size;
+	private final long windowSize;
+
+	/**
+	 * Receives every mapped window of the file, in order.
+	 */
+	public interface WindowHandler {
+		/**
+		 * @param window read-only buffer with the bytes of the window, from position 0 to its limit
+		 * @param offset position of the first byte of the window inside the file
+		 */
+		void handle(ByteBuffer window, long offset) throws IOException;
+	}
+
+	/**
+	 * @param file file to map
+	 * @param windowSize maximum number of bytes mapped at once, between 1 and Integer.MAX_VALUE
+	 * @throws IOException if the file can't be opened
+	 */
+	public MappedInput(Path file, long windowSize) throws IOException {
+		if (windowSize < 1 || windowSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE);
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.windowSize = windowSize;
+	}
+
+	public MappedInput(Path file) throws IOException {
+		this(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @return Size of the file in bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Maps a region of the file.
+	 *
+	 * @param offset position of the first byte to map
+	 * @param length number of bytes to map
+	 * @return A read-only buffer over the region
+	 * @throws IOException if the region can't be mapped
+	 */
+	public MappedByteBuffer map(long offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > size)
+			throw new IndexOutOfBoundsException();
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+
+	/**
+	 * Maps the whole file window by window, handing each window to the handler.
+	 *
+	 * @param handler receives every window
+	 * @throws IOException if a window can't be mapped or the handler fails
+	 */
+	public void forEachWindow(WindowHandler handler) throws IOException {
+		for (long offset = 0; offset < size; offset += windowSize)
+			handler.handle(map(offset, (int) Math.min(windowSize, size - offset)), offset);
+	}
+
+	/**
+	 * Counts how many times every byte value appears in the file,
+	 * using a FrequencyCounter to count each window in parallel.
+	 *
+	 * @return Table with the frequency of each unsigned byte value
+	 * @throws IOException if the file can't be mapped
+	 */
+	public DenseFrequencyTable countBytes() throws IOException {
+		DenseFrequencyTable frequencies = new DenseFrequencyTable(DenseFrequencyTable.BYTE_ALPHABET);
+		FrequencyCounter counter = new FrequencyCounter();
+
+		/* Each window is counted in parallel, then added to the totals */
+		forEachWindow((window, offset) -> frequencies.addAll(counter.countBytes(window)));
+		return frequencies;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
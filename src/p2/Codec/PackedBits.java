@@ -0,0 +1,105 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packed Bit Sequence
+ *
+ * Holds the output of the Huffman encoder as real bits: every 8 code bits
+ * take a single byte, packed most significant bit first. The exact number
+ * of meaningful bits is kept alongside the bytes, since the last byte
+ * is usually only partially used (the unused low bits are always 0).
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class PackedBits {
+
+	private final byte[] data;
+	private final long bitLength;
+
+	/**
+	 * Wraps an already packed array of bytes.
+	 *
+	 * @param data the packed bits, most significant bit first
+	 * @param bitLength number of meaningful bits in data
+	 * @throws IllegalArgumentException if data cannot hold bitLength bits
+	 */
+	public PackedBits(byte[] data, long bitLength) {
+		if (data == null)
+			throw new IllegalArgumentException("Data cannot be null");
+		if (bitLength < 0 || (bitLength + 7) / 8 > data.length)
+			throw new IllegalArgumentException("Bit length does not fit in the given data");
+		this.data = data;
+		this.bitLength = bitLength;
+	}
+
+	/**
+	 * Packs a string of '0' and '1' characters, like the one returned
+	 * by HuffmanCoding.encode, into real bits.
+	 *
+	 * @param bits string made only of '0' and '1' characters
+	 * @return The packed version of the given bits
+	 */
+	public static PackedBits fromBitString(CharSequence bits) {
+		BitWriter writer = new BitWriter((bits.length() + 7) / 8);
+		writer.writeCode(bits);
+		return writer.toPackedBits();
+	}
+
+	/**
+	 * Returns the array backing this sequence. Only the first
+	 * getByteLength() bytes are meaningful.
+	 *
+	 * @return The packed bytes
+	 */
+	public byte[] getBytes() {
+		return data;
+	}
+
+	/**
+	 * @return Exact number of bits stored in this sequence
+	 */
+	public long getBitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * @return Number of bytes needed to store all the bits (bit length rounded up to a whole byte)
+	 */
+	public int getByteLength() {
+		return (int) ((bitLength + 7) / 8);
+	}
+
+	/**
+	 * Returns the bit at the given position
+	 *
+	 * @param index position of the bit, 0 being the first bit written
+	 * @return 0 or 1
+	 * @throws IndexOutOfBoundsException if the index is not valid
+	 */
+	public int getBit(long index) {
+		if (index < 0 || index >= bitLength)
+			throw new IndexOutOfBoundsException();
+		return (data[(int) (index >>> 3)] >>> (7 - (int) (index & 7))) & 1;
+	}
+
+	/**
+	 * @return A read-only buffer over the meaningful bytes of this sequence
+	 */
+	public ByteBuffer toByteBuffer() {
+		return ByteBuffer.wrap(data, 0, getByteLength()).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Expands the bits back into a string of '0' and '1' characters.
+	 * Only meant for printing and for compatibility with the String based methods.
+	 *
+	 * @return String with one character per bit
+	 */
+	public String toBitString() {
+		StringBuilder result = new StringBuilder((int) bitLength);
+		for (long i = 0; i < bitLength; i++)
+			result.append(getBit(i) == 0 ? '0' : '1');
+		return result.toString();
+	}
+}
@@ -0,0 +1,121 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Restart Point Index
+ *
+ * Side table for a single encoded stream: every interval symbols, the encoder
+ * records the bit offset where the next code starts. Restart point i is where
+ * symbol i * interval starts in the stream and where its decoded output goes,
+ * so a decoder can start at any restart point without decoding what comes
+ * before it. That lets several threads decode the same stream at once, each
+ * one writing its segment straight into its final place in the output.
+ *
+ * The table is stored compactly: the bit offsets only grow, so each one is
+ * written as a variable length gap from the previous one (a few bytes each).
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class RestartIndex {
+
+	private final int interval;
+	private final long symbolCount;
+	private final long[] bitOffsets;
+
+	/**
+	 * @param interval number of symbols between two restart points
+	 * @param symbolCount total number of symbols in the stream
+	 * @param bitOffsets bit offset of every restart point, ascending, the first one being 0
+	 * @throws IllegalArgumentException if the offsets don't match the interval and symbol count
+	 */
+	public RestartIndex(int interval, long symbolCount, long[] bitOffsets) {
+		if (interval < 1)
+			throw new IllegalArgumentException("Interval must be positive");
+		if (symbolCount < 0 || bitOffsets.length != (symbolCount + interval - 1) / interval)
+			throw new IllegalArgumentException("There must be a restart point every " + interval + " symbols");
+		for (int i = 0; i < bitOffsets.length; i++)
+			if (i == 0 ? bitOffsets[i] != 0 : bitOffsets[i] < bitOffsets[i - 1])
+				throw new IllegalArgumentException("Restart points must start at 0 and be ascending");
+		this.interval = interval;
+		this.symbolCount = symbolCount;
+		this.bitOffsets = bitOffsets.clone();
+	}
+
+	/**
+	 * Reads an index written by toBytes.
+	 *
+	 * @param in buffer positioned at the start of the index
+	 * @return The index
+	 * @throws IllegalArgumentException if the index is not valid
+	 */
+	public static RestartIndex fromBytes(ByteBuffer in) {
+		int interval = (int) VarInts.readLong(in);
+		long symbolCount = VarInts.readLong(in);
+		if (interval < 1 || symbolCount < 0 || (symbolCount + interval - 1) / interval > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Malformed restart index");
+
+		long[] bitOffsets = new long[(int) ((symbolCount + interval - 1) / interval)];
+		for (int i = 1; i < bitOffsets.length; i++)
+			bitOffsets[i] = bitOffsets[i - 1] + VarInts.readLong(in);
+		return new RestartIndex(interval, symbolCount, bitOffsets);
+	}
+
+	/**
+	 * @return The index as bytes: the interval, the symbol count and the gaps between restart points
+	 */
+	public byte[] toBytes() {
+		ByteBuffer out = ByteBuffer.allocate(10 * (bitOffsets.length + 2));
+		VarInts.writeLong(out, interval);
+		VarInts.writeLong(out, symbolCount);
+		for (int i = 1; i < bitOffsets.length; i++)
+			VarInts.writeLong(out, bitOffsets[i] - bitOffsets[i - 1]);
+		return Arrays.copyOf(out.array(), out.position());
+	}
+
+	/**
+	 * @return Number of symbols between two restart points
+	 */
+	public int interval() {
+		return interval;
+	}
+
+	/**
+	 * @return Total number of symbols in the stream
+	 */
+	public long symbolCount() {
+		return symbolCount;
+	}
+
+	/**
+	 * @return Number of restart points, one per segment of the stream
+	 */
+	public int restartCount() {
+		return bitOffsets.length;
+	}
+
+	/**
+	 * @param restart index of the restart point
+	 * @return Bit offset, from the start of the stream, of the first code of the segment
+	 */
+	public long bitOffset(int restart) {
+		return bitOffsets[restart];
+	}
+
+	/**
+	 * @param restart index of the restart point
+	 * @return Position in the decoded output of the first symbol of the segment
+	 */
+	public long outputOffset(int restart) {
+		return (long) restart * interval;
+	}
+
+	/**
+	 * @param restart index of the restart point
+	 * @return Number of symbols in the segment
+	 */
+	public int segmentLength(int restart) {
+		return (int) Math.min(interval, symbolCount - outputOffset(restart));
+	}
+}
@@ -0,0 +1,162 @@
+package p2.Codec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Seekable Block Reader
+ *
+ * Random access to a file written by BlockCompressor. The footer index at the
+ * end of the file says where every block starts, so reading a range of the
+ * original bytes only decodes the blocks covering that range, no matter how
+ * big the file is or where the range falls.
+ *
+ * The last decoded block is kept, so consecutive small reads
+ * (like a record at a time) only decode each block once.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class SeekableBlockReader implements Closeable {
+
+	private final FileChannel channel;
+	private final int blockSize;
+	private final long size;
+	private final long[] blockOffsets;
+
+	/* Last decoded block */
+	private int cachedBlock = -1;
+	private byte[] cachedBytes;
+
+	/**
+	 * Opens a block compressed file and reads its footer index.
+	 *
+	 * @param file file written by BlockCompressor.compress
+	 * @throws IOException if the file can't be read or is not a block compressed file
+	 */
+	public SeekableBlockReader(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = readFully(0, 8);
+			if (header.getInt() != BlockCompressor.MAGIC)
+				throw new IOException("Input is not a block compressed file");
+			this.blockSize = header.getInt();
+			if (blockSize < BlockCompressor.MIN_BLOCK_SIZE || blockSize > BlockCompressor.MAX_BLOCK_SIZE)
+				throw new IOException("Compressed file has no valid footer index");
+
+			/* The fixed part of the footer is at the very end, the offsets right before it */
+			long fileSize = channel.size();
+			ByteBuffer trailer = readFully(fileSize - 16, 16);
+			this.size = trailer.getLong();
+			int blockCount = trailer.getInt();
+			if (trailer.getInt() != BlockCompressor.FOOTER_MAGIC || size < 0 || blockCount < 0
+					|| blockCount > (fileSize - 24) / 8 || blockCount != (size + blockSize - 1) / blockSize)
+				throw new IOException("Compressed file has no valid footer index");
+
+			ByteBuffer index = readFully(fileSize - 16 - 8L * blockCount, 8 * blockCount);
+			this.blockOffsets = new long[blockCount];
+			for (int i = 0; i < blockCount; i++)
+				blockOffsets[i] = index.getLong();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return Number of bytes in the original file
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return Number of blocks in the file
+	 */
+	public int blockCount() {
+		return blockOffsets.length;
+	}
+
+	/**
+	 * Reads a range of the original file, decoding only the blocks it covers.
+	 *
+	 * @param position position in the original file of the first byte to read
+	 * @param output array where the bytes are stored
+	 * @param offset index of output where the first byte is stored
+	 * @param length maximum number of bytes to read
+	 * @return Number of bytes read, fewer than length if the range goes past the end of the file
+	 * @throws IOException if the file can't be read or is corrupted
+	 */
+	public int read(long position, byte[] output, int offset, int length) throws IOException {
+		if (position < 0 || offset < 0 || length < 0 || length > output.length - offset)
+			throw new IndexOutOfBoundsException();
+
+		int done = 0;
+		while (done < length && position + done < size) {
+			long current = position + done;
+			byte[] block = block((int) (current / blockSize));
+			int from = (int) (current % blockSize);
+			int count = Math.min(length - done, block.length - from);
+			System.arraycopy(block, from, output, offset + done, count);
+			done += count;
+		}
+		return done;
+	}
+
+	/**
+	 * Reads a range of the original file, decoding only the blocks it covers.
+	 *
+	 * @param position position in the original file of the first byte to read
+	 * @param length maximum number of bytes to read
+	 * @return The bytes read, fewer than length if the range goes past the end of the file
+	 * @throws IOException if the file can't be read or is corrupted
+	 */
+	public byte[] read(long position, int length) throws IOException {
+		if (position < 0 || length < 0)
+			throw new IndexOutOfBoundsException();
+		byte[] result = new byte[(int) Math.max(0, Math.min(length, size - position))];
+		read(position, result, 0, result.length);
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/* Decoded bytes of the given block */
+	private byte[] block(int index) throws IOException {
+		if (index != cachedBlock) {
+			int frameSize = readFully(blockOffsets[index], 4).getInt();
+			if (frameSize < 4 + ByteHuffmanCodec.HEADER_SIZE)
+				throw new IOException("Compressed file is corrupted");
+			try {
+				cachedBytes = BlockCompressor.decodeBlock(readFully(blockOffsets[index] + 4, frameSize), blockSize).array();
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Compressed file is corrupted", e);
+			}
+
+			/* Every block but the last one is full, the last one holds whatever is left */
+			if (cachedBytes.length != Math.min(blockSize, size - (long) index * blockSize)) {
+				cachedBlock = -1;
+				throw new IOException("Compressed file is corrupted");
+			}
+			cachedBlock = index;
+		}
+		return cachedBytes;
+	}
+
+	private ByteBuffer readFully(long position, int length) throws IOException {
+		if (position < 0)
+			throw new IOException("Compressed file is corrupted");
+		ByteBuffer result = ByteBuffer.allocate(length);
+		while (result.hasRemaining())
+			if (channel.read(result, position + result.position()) < 0)
+				throw new EOFException("Compressed file is truncated");
+		return result.flip();
+	}
+}
@@ -0,0 +1,211 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import p2.HuffmanCoding;
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Static Dictionary
+ *
+ * A code trained once over a corpus of typical messages (like the static table
+ * of HPACK), so short messages can be encoded without building a tree or storing
+ * a header for each of them. The only thing stored along with the codes of a
+ * message is its length in chars, as a varint (a single byte below 128 chars).
+ *
+ * Training counts every char of the corpus with HuffmanCoding.compute_fd and builds
+ * the tree with HuffmanCoding.huffman_tree. The tree has one more leaf, ESCAPE, for the
+ * chars that never showed up in the corpus: such a char is encoded as the code of ESCAPE
+ * followed by the 16 bits of the char. ESCAPE gets the frequency of the chars seen only
+ * once (at least 1), as a guess of how often chars not seen yet will show up.
+ *
+ * Dictionary file format (big endian):
+ *   int   MAGIC
+ *   int   FORMAT_VERSION
+ *   int   id of the dictionary
+ *   int   size of the code header
+ *   then, the code lengths written by CanonicalCode.toHeader
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class StaticDictionary {
+
+	private static final int MAGIC = 0x48444943; // "HDIC"
+	public static final int FORMAT_VERSION = 1;
+
+	/* U+FFFF is not a character, so it stands for every char left out of the dictionary */
+	public static final char ESCAPE = '\uFFFF';
+
+	private final int id;
+	private final CanonicalCode code;
+
+	/**
+	 * @param id number that identifies the dictionary
+	 * @param code code for the chars of the dictionary, including ESCAPE
+	 * @throws IllegalArgumentException if the code has no code for ESCAPE
+	 */
+	public StaticDictionary(int id, CanonicalCode code) {
+		if (code == null)
+			throw new IllegalArgumentException("Code cannot be null");
+		if (code.length(ESCAPE) == 0)
+			throw new IllegalArgumentException("Code must have a code for the escape symbol");
+
+		this.id = id;
+		this.code = code;
+	}
+
+	/**
+	 * Trains a dictionary over every file of a directory, read as UTF-8 text.
+	 *
+	 * @param id number that identifies the dictionary
+	 * @param corpus directory with the sample messages
+	 * @return The dictionary trained over all of them
+	 * @throws IOException if a file can't be read
+	 */
+	public static StaticDictionary train(int id, Path corpus) throws IOException {
+		Map<String, Integer> counts = new HashTableOA<String, Integer>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(corpus)) {
+			for (Path file : files)
+				if (Files.isRegularFile(file))
+					HuffmanCoding.compute_fd(Files.readString(file), counts);
+		}
+		return train(id, counts);
+	}
+
+	/**
+	 * Trains a dictionary from the frequency of each char of a corpus.
+	 *
+	 * @param id number that identifies the dictionary
+	 * @param counts frequency of each char, as returned by HuffmanCoding.compute_fd (it gets ESCAPE added)
+	 * @return The dictionary for those frequencies
+	 */
+	public static StaticDictionary train(int id, Map<String, Integer> counts) {
+		String escape = String.valueOf(ESCAPE);
+		counts.remove(escape);
+
+		/* Chars seen once estimate how likely a char never seen is */
+		int seenOnce = 0;
+		for (int count : counts.getValues())
+			if (count == 1)
+				seenOnce++;
+		counts.put(escape, Math.max(seenOnce, 1));
+
+		return new StaticDictionary(id, CanonicalCode.fromTree(HuffmanCoding.huffman_tree(counts)));
+	}
+
+	/**
+	 * Reads a dictionary written by save.
+	 *
+	 * @param file dictionary file
+	 * @return The dictionary in the file
+	 * @throws IOException if the file can't be read, or is not a dictionary of this version
+	 */
+	public static StaticDictionary load(Path file) throws IOException {
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+		try {
+			if (in.getInt() != MAGIC)
+				throw new IOException("Not a dictionary file: " + file);
+			int version = in.getInt();
+			if (version != FORMAT_VERSION)
+				throw new IOException("Unsupported dictionary version " + version + ": " + file);
+			int id = in.getInt();
+			int headerSize = in.getInt();
+			if (headerSize != in.remaining())
+				throw new IOException("Dictionary file is corrupted: " + file);
+			return new StaticDictionary(id, CanonicalCode.fromHeader(in));
+		} catch (RuntimeException e) {
+			/* A truncated buffer or an invalid code header */
+			throw new IOException("Dictionary file is corrupted: " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the dictionary to a file.
+	 *
+	 * @param file file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		byte[] header = code.toHeader();
+		ByteBuffer out = ByteBuffer.allocate(16 + header.length);
+		out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(id).putInt(header.length).put(header);
+		Files.write(file, out.array());
+	}
+
+	/**
+	 * Encodes a message with the dictionary.
+	 *
+	 * @param message text to encode
+	 * @return The length of the message as a varint, followed by the packed codes of its chars
+	 */
+	public byte[] compress(CharSequence message) {
+		BitWriter out = new BitWriter();
+		for (int i = 0; i < message.length(); i++) {
+			char c = message.charAt(i);
+			if (c != ESCAPE && code.length(c) > 0)
+				code.encode(c, out);
+			else {
+				code.encode(ESCAPE, out);
+				out.write(c, 16);
+			}
+		}
+
+		PackedBits bits = out.toPackedBits();
+		ByteBuffer result = ByteBuffer.allocate(5 + bits.getByteLength());
+		VarInts.write(result, message.length());
+		result.put(bits.getBytes(), 0, bits.getByteLength());
+		return Arrays.copyOf(result.array(), result.position());
+	}
+
+	/**
+	 * Decodes a message encoded with compress using this same dictionary.
+	 *
+	 * @param compressed bytes returned by compress
+	 * @return The original message
+	 * @throws IllegalArgumentException if the bytes are not a message encoded with this dictionary
+	 */
+	public String decompress(byte[] compressed) {
+		ByteBuffer in = ByteBuffer.wrap(compressed);
+		int length;
+		try {
+			length = VarInts.read(in);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Message is corrupted", e);
+		}
+
+		/* Every char takes at least one bit, so a bigger length can't be right */
+		byte[] data = Arrays.copyOfRange(compressed, in.position(), compressed.length);
+		if (length < 0 || length > 8L * data.length)
+			throw new IllegalArgumentException("Message is corrupted");
+
+		BitReader bits = new BitReader(data, 8L * data.length);
+		StringBuilder result = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			int symbol = code.decode(bits);
+			result.append(symbol == ESCAPE ? (char) bits.read(16) : (char) symbol);
+		}
+		if (bits.position() > bits.bitLength())
+			throw new IllegalArgumentException("Message is corrupted");
+		return result.toString();
+	}
+
+	/**
+	 * @return Number that identifies the dictionary
+	 */
+	public int id() {
+		return id;
+	}
+
+	/**
+	 * @return The code of the dictionary, including ESCAPE
+	 */
+	public CanonicalCode code() {
+		return code;
+	}
+}
@@ -0,0 +1,275 @@
+package p2.Codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+
+/**
+ * Streaming Whole File Compressor
+ *
+ * Compresses a UTF-8 text file of any size with a fixed amount of memory,
+ * instead of loading it into a single String like HuffmanCoding.load_data does.
+ *
+ * It works in two passes over the file, reading it in fixed size chunks:
+ *   1. Count the frequency of every character.
+ *   2. Build the Huffman codes from those frequencies and encode the file
+ *      chunk by chunk, draining the packed bits into the output as they fill a buffer.
+ *
+ * Output format (big endian):
+ *   int   MAGIC
+ *   long  number of characters encoded
+ *   int   size of the code header
+ *   then, the code lengths written by CanonicalCode.toHeader
+ *   then, the packed codes
+ *
+ * The codes are canonical codes built by LengthLimitedCode, so storing their
+ * lengths is enough for the decompressor to rebuild them. They are never longer
+ * than MAX_CODE_LENGTH bits, no matter how skewed the input is.
+ * Malformed UTF-8 in the input is replaced with U+FFFD, the same way an InputStreamReader would.
+ *
+ * compressMapped skips the charset decoding altogether: it memory maps the
+ * file and uses its raw bytes as the symbols (stored as chars 0 to 255),
+ * under BYTE_MAGIC so the decompressor knows to write bytes back instead of text.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class StreamingCompressor {
+
+	private static final int MAGIC = 0x48554631; // "HUF1"
+	private static final int BYTE_MAGIC = 0x48554642; // "HUFB"
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+	public static final int MAX_CODE_LENGTH = 32;
+
+	private final int chunkSize;
+	private final long windowSize;
+
+	/* Receives every chunk of characters decoded from the input */
+	private interface ChunkHandler {
+		void handle(CharBuffer chars) throws IOException;
+	}
+
+	/**
+	 * @param chunkSize size in bytes of the chunks read from and written to the files, at least 16
+	 * @param windowSize maximum number of bytes compressMapped maps at once, see MappedInput
+	 */
+	public StreamingCompressor(int chunkSize, long windowSize) {
+		if (chunkSize < 16)
+			throw new IllegalArgumentException("Chunk size must be at least 16");
+		if (windowSize < 1 || windowSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE);
+		this.chunkSize = chunkSize;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * @param chunkSize size in bytes of the chunks read from and written to the files, at least 16
+	 */
+	public StreamingCompressor(int chunkSize) {
+		this(chunkSize, MappedInput.DEFAULT_WINDOW_SIZE);
+	}
+
+	public StreamingCompressor() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Compresses the given text file.
+	 *
+	 * @param input UTF-8 text file to compress
+	 * @param output file where the compressed data is written (replaced if it exists)
+	 * @return Number of characters compressed
+	 * @throws IOException if reading or writing any of the files fails
+	 */
+	public long compress(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			/* First pass: frequency of every character */
+			DenseFrequencyTable frequencies = new DenseFrequencyTable(DenseFrequencyTable.CHAR_ALPHABET);
+			long charCount = countFrequencies(in, frequencies.counts());
+			CanonicalCode code = buildCode(frequencies);
+
+			writeHeader(out, MAGIC, charCount, code);
+			if (charCount == 0)
+				return 0;
+
+			/* Second pass: encode chunk by chunk with codes indexed by character */
+			BitWriter writer = new BitWriter(out, chunkSize);
+			in.position(0);
+			readChars(in, (chars) -> {
+				while (chars.hasRemaining())
+					code.encode(chars.get(), writer);
+			});
+			writer.finish();
+			return charCount;
+		}
+	}
+
+	/**
+	 * Compresses any file, treating each of its bytes as a symbol.
+	 * The file is memory mapped window by window, so its bytes go straight
+	 * from the page cache into the frequency counter and the encoder.
+	 *
+	 * @param input file to compress
+	 * @param output file where the compressed data is written (replaced if it exists)
+	 * @return Number of bytes compressed
+	 * @throws IOException if reading or writing any of the files fails
+	 */
+	public long compressMapped(Path input, Path output) throws IOException {
+		try (MappedInput in = new MappedInput(input, windowSize);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			/* First pass: frequency of every byte value */
+			CanonicalCode code = buildCode(in.countBytes());
+
+			writeHeader(out, BYTE_MAGIC, in.size(), code);
+			if (in.size() == 0)
+				return 0;
+
+			/* Second pass: encode the mapped windows with codes indexed by byte value */
+			BitWriter writer = new BitWriter(out, chunkSize);
+			in.forEachWindow((window, offset) -> {
+				for (int i = window.position(); i < window.limit(); i++)
+					code.encode(window.get(i) & 0xFF, writer);
+			});
+			writer.finish();
+			return in.size();
+		}
+	}
+
+	/**
+	 * Decompresses a file written by compress or compressMapped.
+	 *
+	 * @param input compressed file
+	 * @param output file where the decoded data is written (replaced if it exists)
+	 * @return Number of symbols (characters or bytes) decompressed
+	 * @throws IOException if reading or writing any of the files fails, or the input is not a compressed file
+	 */
+	public long decompress(Path input, Path output) throws IOException {
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			ByteBuffer header = readFully(in, 16);
+			int magic = header.getInt();
+			if (magic != MAGIC && magic != BYTE_MAGIC)
+				throw new IOException("Input is not a compressed file");
+			long symbolTotal = header.getLong();
+			int headerSize = header.getInt();
+			if (headerSize < 0 || headerSize > in.size() - 16)
+				throw new IOException("Input is not a compressed file");
+			CanonicalCode code = CanonicalCode.fromHeader(readFully(in, headerSize));
+			if (symbolTotal == 0)
+				return 0;
+
+			BitReader reader = new BitReader(in, chunkSize);
+
+			if (magic == MAGIC) {
+				/* Text: characters are encoded back into UTF-8 */
+				Writer writer = Channels.newWriter(out, StandardCharsets.UTF_8.newEncoder(), chunkSize);
+				for (long i = 0; i < symbolTotal; i++)
+					writer.write(code.decode(reader));
+				writer.flush();
+			}
+			else {
+				/* Bytes: every symbol is written back as the byte it came from */
+				ByteBuffer bytes = ByteBuffer.allocate(chunkSize);
+				for (long i = 0; i < symbolTotal; i++) {
+					bytes.put((byte) code.decode(reader));
+					if (!bytes.hasRemaining())
+						writeFully(out, bytes.flip());
+				}
+				writeFully(out, bytes.flip());
+			}
+			return symbolTotal;
+		}
+	}
+
+	/**
+	 * Counts every character of the input channel, from its current position to the end.
+	 *
+	 * @return Total number of characters read
+	 */
+	private long countFrequencies(FileChannel in, long[] frequencies) throws IOException {
+		long[] total = {0};
+		readChars(in, (chars) -> {
+			total[0] += chars.remaining();
+			while (chars.hasRemaining())
+				frequencies[chars.get()]++;
+		});
+		return total[0];
+	}
+
+	/* Canonical Huffman code for the counted symbols, with lengths bounded by MAX_CODE_LENGTH */
+	private static CanonicalCode buildCode(FrequencyTable frequencies) {
+		return LengthLimitedCode.build(frequencies, MAX_CODE_LENGTH).getCode();
+	}
+
+	private static void writeHeader(FileChannel out, int magic, long symbolTotal, CanonicalCode code) throws IOException {
+		byte[] lengths = code.toHeader();
+		ByteBuffer header = ByteBuffer.allocate(16 + lengths.length);
+		header.putInt(magic).putLong(symbolTotal).putInt(lengths.length).put(lengths);
+		header.flip();
+		writeFully(out, header);
+	}
+
+	/* Writes everything remaining in the buffer, leaving it cleared */
+	static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			out.write(buffer);
+		buffer.clear();
+	}
+
+	static ByteBuffer readFully(ReadableByteChannel in, int length) throws IOException {
+		ByteBuffer result = ByteBuffer.allocate(length);
+		while (result.hasRemaining())
+			if (in.read(result) < 0)
+				throw new EOFException("Compressed file is truncated");
+		return result.flip();
+	}
+
+	/**
+	 * Reads the channel chunk by chunk, decoding the UTF-8 bytes into characters
+	 * and handing each decoded chunk to the handler. Multi-byte characters split
+	 * between two chunks are carried over to the next one.
+	 */
+	private void readChars(FileChannel in, ChunkHandler handler) throws IOException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer bytes = ByteBuffer.allocate(chunkSize);
+		CharBuffer chars = CharBuffer.allocate(chunkSize);
+
+		boolean endOfInput = false;
+		while (!endOfInput) {
+			endOfInput = in.read(bytes) < 0;
+			bytes.flip();
+			CoderResult result;
+			do {
+				result = decoder.decode(bytes, chars, endOfInput);
+				chars.flip();
+				handler.handle(chars);
+				chars.clear();
+			} while (result.isOverflow());
+			bytes.compact();
+		}
+
+		/* Flush anything the decoder kept for itself */
+		decoder.flush(chars);
+		chars.flip();
+		handler.handle(chars);
+	}
+}
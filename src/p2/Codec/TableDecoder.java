@@ -0,0 +1,209 @@
+package p2.Codec;
+
+import java.util.Arrays;
+
+import p2.DataStructures.Map.Map;
+
+/**
+ * Table Driven Huffman Decoder
+ *
+ * Instead of comparing the encoded bits against every prefix code,
+ * the decoder looks at the next k bits of the input and uses them
+ * as an index into a table with 2^k entries. Each entry tells which
+ * symbol starts with those bits and how many bits its code actually takes.
+ *
+ * Codes longer than k bits can't be resolved with the first k bits alone,
+ * so their entries point to a second level table indexed by the bits that
+ * follow (and so on for very long codes). Most symbols are decoded
+ * with a single array read, the rare long ones with two.
+ *
+ * All tables live in a single int array. An entry is either:
+ *   - 0, if no code starts with those bits
+ *   - a leaf, (symbol &lt;&lt; 5) | bits consumed
+ *   - a link, sign bit | (table offset &lt;&lt; 5) | bits indexing the linked table
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class TableDecoder {
+
+	private static final int DEFAULT_ROOT_BITS = 10;
+	private static final int MAX_ROOT_BITS = 16;
+	private static final int LINK = 0x80000000;
+
+	private final String[] symbols;
+	private int[] table;
+	private int tableSize;
+	private final int rootWidth;
+
+	/* Binary trie of the prefix codes, only used while building the tables */
+	private int[] zero, one, leaf, height;
+	private int trieSize;
+
+	/**
+	 * Builds the decoding tables for the given prefix code map.
+	 *
+	 * @param lookupTable map from symbols to their codes, as returned by HuffmanCoding.huffman_code
+	 * @param rootBits number of bits resolved by the first level table, between 1 and 16
+	 * @throws IllegalArgumentException if the codes are empty, not made of '0' and '1', or not prefix free
+	 */
+	public TableDecoder(Map<String, String> lookupTable, int rootBits) {
+		if (rootBits < 1 || rootBits > MAX_ROOT_BITS)
+			throw new IllegalArgumentException("Root bits must be between 1 and " + MAX_ROOT_BITS);
+
+		symbols = new String[lookupTable.size()];
+		zero = new int[2 * symbols.length + 1];
+		one = new int[zero.length];
+		leaf = new int[zero.length];
+		height = new int[zero.length];
+		trieSize = 1;
+		zero[0] = one[0] = leaf[0] = -1;
+
+		int symbol = 0;
+		for (String key : lookupTable.getKeys()) {
+			symbols[symbol] = key;
+			insert(lookupTable.get(key), symbol++);
+		}
+		computeHeight(0);
+
+		rootWidth = Math.min(rootBits, Math.max(height[0], 1));
+		table = new int[1 << rootWidth];
+		buildTable(0, rootWidth, rootBits);
+
+		// The trie is no longer needed once the tables are built
+		zero = one = leaf = height = null;
+	}
+
+	public TableDecoder(Map<String, String> lookupTable) {
+		this(lookupTable, DEFAULT_ROOT_BITS);
+	}
+
+	/**
+	 * Decodes the next symbol from the reader.
+	 *
+	 * @param in reader positioned at the start of a code
+	 * @return Index of the symbol decoded, see getSymbol
+	 * @throws IllegalArgumentException if the bits don't match any code
+	 */
+	public int next(BitReader in) {
+		int width = rootWidth;
+		int entry = table[in.peek(width)];
+
+		// Follow links into the next level tables for long codes
+		while (entry < 0) {
+			in.skip(width);
+			width = entry & 31;
+			entry = table[((entry & ~LINK) >>> 5) + in.peek(width)];
+		}
+		if (entry == 0)
+			throw new IllegalArgumentException("Encoded data contains an invalid code");
+
+		in.skip(entry & 31);
+		return entry >>> 5;
+	}
+
+	/**
+	 * Decodes all the packed bits back into the original string.
+	 *
+	 * @param bits packed bits, as returned by HuffmanCoding.encode_packed
+	 * @return The decoded string
+	 * @throws IllegalArgumentException if the bits are not a valid encoding
+	 */
+	public String decode(PackedBits bits) {
+		StringBuilder result = new StringBuilder();
+		BitReader in = new BitReader(bits);
+
+		while (in.hasRemaining())
+			result.append(symbols[next(in)]);
+
+		if (in.position() > in.bitLength())
+			throw new IllegalArgumentException("Encoded data ends in the middle of a code");
+		return result.toString();
+	}
+
+	/**
+	 * @param index index returned by next
+	 * @return The symbol with the given index
+	 */
+	public String getSymbol(int index) {
+		return symbols[index];
+	}
+
+	/* Adds a code to the trie, making sure codes stay prefix free */
+	private void insert(String code, int symbol) {
+		if (code == null || code.isEmpty())
+			throw new IllegalArgumentException("Codes cannot be empty");
+
+		int node = 0;
+		for (int i = 0; i < code.length(); i++) {
+			char c = code.charAt(i);
+			if (c != '0' && c != '1')
+				throw new IllegalArgumentException("Codes can only contain '0' and '1'");
+			if (leaf[node] >= 0)
+				throw new IllegalArgumentException("Codes are not prefix free");
+
+			int[] children = c == '0' ? zero : one;
+			if (children[node] < 0) {
+				if (trieSize == zero.length)
+					reAllocateTrie();
+				children = c == '0' ? zero : one;
+				zero[trieSize] = one[trieSize] = leaf[trieSize] = -1;
+				children[node] = trieSize++;
+			}
+			node = children[node];
+		}
+		if (leaf[node] >= 0 || zero[node] >= 0 || one[node] >= 0)
+			throw new IllegalArgumentException("Codes are not prefix free");
+		leaf[node] = symbol;
+	}
+
+	private int computeHeight(int node) {
+		if (node < 0 || leaf[node] >= 0)
+			return 0;
+		height[node] = 1 + Math.max(computeHeight(zero[node]), computeHeight(one[node]));
+		return height[node];
+	}
+
+	/**
+	 * Fills the table of 2^width entries that resolves the next width bits
+	 * after the given trie node, creating the linked tables it needs.
+	 *
+	 * @return Offset of the table inside the table array
+	 */
+	private int buildTable(int node, int width, int maxWidth) {
+		int offset = tableSize;
+		if (offset + (1 << width) > table.length)
+			reAllocateTable(offset + (1 << width));
+		tableSize += 1 << width;
+
+		for (int index = 0; index < (1 << width); index++) {
+			int current = node;
+			for (int depth = 1; depth <= width; depth++) {
+				current = ((index >>> (width - depth)) & 1) == 0 ? zero[current] : one[current];
+				if (current < 0)
+					break; // No code starts with these bits, entry stays 0
+				if (leaf[current] >= 0) {
+					table[offset + index] = (leaf[current] << 5) | depth;
+					break;
+				}
+				if (depth == width) {
+					int childWidth = Math.min(maxWidth, height[current]);
+					int childOffset = buildTable(current, childWidth, maxWidth);
+					table[offset + index] = LINK | (childOffset << 5) | childWidth;
+				}
+			}
+		}
+		return offset;
+	}
+
+	private void reAllocateTrie() {
+		int length = 2 * zero.length;
+		zero = Arrays.copyOf(zero, length);
+		one = Arrays.copyOf(one, length);
+		leaf = Arrays.copyOf(leaf, length);
+		height = Arrays.copyOf(height, length);
+	}
+
+	private void reAllocateTable(int minimum) {
+		table = Arrays.copyOf(table, Math.max(minimum, 2 * table.length));
+	}
+}
@@ -0,0 +1,164 @@
+package p2.Codec;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import p2.DataStructures.Map.Map;
+
+/**
+ * Table Driven Huffman Encoder
+ *
+ * The counterpart of TableDecoder. Instead of looking up the code of every character
+ * in the prefix code map (which takes a substring, a hash and a walk over a String
+ * of '0' and '1' characters per character), the codes are turned once into two flat
+ * arrays indexed by the character itself: code[c] with its bits right aligned, and
+ * length[c] with how many bits it has (0 if the character has no code).
+ *
+ * Encoding shifts the code of each character into a 64-bit register. Whenever the
+ * register holds too many bits to take another code, all of it is stored as 8 bytes
+ * with a single VarHandle write, and the output moves forward by the number of whole
+ * bytes it held. The bits of the last partial byte stay in the register and are written
+ * again by the next store, so no bit is ever handled on its own, and nothing is allocated
+ * or hashed per character.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class TableEncoder {
+
+	/* Codes this long still fit in the register next to the 7 bits of a partial byte */
+	public static final int MAX_LENGTH = 57;
+
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	private final long[] code;
+	private final byte[] length;
+	private final int maxLength;
+
+	/**
+	 * Builds the tables for the given prefix code map.
+	 *
+	 * @param encodingMap map from characters to their codes, as returned by HuffmanCoding.huffman_code
+	 * @throws IllegalArgumentException if a symbol is not a single character, or a code is
+	 *                                  empty, longer than MAX_LENGTH or not made of '0' and '1'
+	 */
+	public TableEncoder(Map<String, String> encodingMap) {
+		int size = 0;
+		for (String symbol : encodingMap.getKeys()) {
+			if (symbol.length() != 1)
+				throw new IllegalArgumentException("Symbols must be single characters");
+			size = Math.max(size, symbol.charAt(0) + 1);
+		}
+
+		code = new long[size];
+		length = new byte[size];
+		int longest = 0;
+		for (String symbol : encodingMap.getKeys()) {
+			String bits = encodingMap.get(symbol);
+			if (bits.isEmpty() || bits.length() > MAX_LENGTH)
+				throw new IllegalArgumentException("Codes must have between 1 and " + MAX_LENGTH + " bits");
+
+			char c = symbol.charAt(0);
+			for (int i = 0; i < bits.length(); i++) {
+				if (bits.charAt(i) != '0' && bits.charAt(i) != '1')
+					throw new IllegalArgumentException("Codes can only contain '0' and '1'");
+				code[c] = (code[c] << 1) | (bits.charAt(i) - '0');
+			}
+			length[c] = (byte) bits.length();
+			longest = Math.max(longest, bits.length());
+		}
+		maxLength = longest;
+	}
+
+	/**
+	 * Builds the tables for a canonical code over characters.
+	 *
+	 * @param canonical the code, with symbols between 0 and 0xFFFF
+	 * @throws IllegalArgumentException if a symbol is not a char or a code is longer than MAX_LENGTH
+	 */
+	public TableEncoder(CanonicalCode canonical) {
+		int[] symbols = canonical.symbols();
+		if (symbols.length > 0 && symbols[symbols.length - 1] > Character.MAX_VALUE)
+			throw new IllegalArgumentException("Symbols must be chars");
+		if (canonical.maxLength() > MAX_LENGTH)
+			throw new IllegalArgumentException("Codes must have at most " + MAX_LENGTH + " bits");
+
+		int size = symbols.length == 0 ? 0 : symbols[symbols.length - 1] + 1;
+		code = new long[size];
+		length = new byte[size];
+		for (int symbol : symbols) {
+			code[symbol] = canonical.code(symbol);
+			length[symbol] = (byte) canonical.length(symbol);
+		}
+		maxLength = canonical.maxLength();
+	}
+
+	/**
+	 * Encodes every character of the input into packed bits.
+	 *
+	 * @param input text to encode
+	 * @return The packed codes of the characters of the input, along with their exact length in bits
+	 * @throws IllegalArgumentException if a character of the input has no code
+	 */
+	public PackedBits encode(CharSequence input) {
+		int n = input.length();
+		byte[] out = new byte[n / 2 + 16];
+		int position = 0;		// Byte where the register is stored next
+		long register = 0;		// Pending bits, right aligned
+		int pending = 0;		// Number of pending bits, the first (pending & 7) of them already stored once
+		int flushAt = 64 - maxLength;
+
+		for (int i = 0; i < n; i++) {
+			char c = input.charAt(i);
+			int bits = c < length.length ? length[c] : 0;
+			if (bits == 0)
+				throw new IllegalArgumentException("Symbol '" + c + "' has no code in the encoding map");
+
+			register = (register << bits) | code[c];
+			pending += bits;
+			if (pending > flushAt) {
+				/* Left align the pending bits and store the whole register */
+				if (position + 8 > out.length)
+					out = grow(out);
+				LONGS.set(out, position, register << (64 - pending));
+				position += pending >>> 3;
+				pending &= 7;
+			}
+		}
+
+		if (pending > 0) {
+			if (position + 8 > out.length)
+				out = grow(out);
+			LONGS.set(out, position, register << (64 - pending));
+		}
+
+		/* Only the first (bitLength + 7) / 8 bytes are meaningful, the rest is slack */
+		return new PackedBits(out, 8L * position + pending);
+	}
+
+	/**
+	 * @param c character to look for
+	 * @return The length of the code of the character, 0 if it has no code
+	 */
+	public int length(char c) {
+		return c < length.length ? length[c] : 0;
+	}
+
+	/**
+	 * @return Length of the longest code
+	 */
+	public int maxLength() {
+		return maxLength;
+	}
+
+	/* Doubles the output, which always keeps room for one more 8 byte store */
+	private static byte[] grow(byte[] out) {
+		long size = Math.max(2L * out.length, 16);
+		if (size > Integer.MAX_VALUE - 8)
+			size = Integer.MAX_VALUE - 8;
+		if (size <= out.length)
+			throw new IllegalStateException("Encoded input is too big for an array");
+		return Arrays.copyOf(out, (int) size);
+	}
+}
@@ -0,0 +1,90 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable Length Integers
+ *
+ * The varints used by the headers of the codec formats (CanonicalCode, StaticDictionary
+ * and RestartIndex): 7 bits per byte, least significant group first, with the top bit
+ * of every byte but the last one set. Small values, like most code lengths, symbol gaps
+ * and counts, take a single byte.
+ *
+ * Values are treated as unsigned, so negative ones take the most bytes (5 for an int, 10 for a long).
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+final class VarInts {
+
+	private VarInts() {
+	}
+
+	/**
+	 * @param out buffer where the varint is written
+	 * @param value value to write
+	 */
+	static void write(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * @param out buffer where the varint is written
+	 * @param value value to write
+	 */
+	static void writeLong(ByteBuffer out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * @param in buffer positioned at a varint written by write
+	 * @return The value read
+	 * @throws IllegalArgumentException if the varint takes more than 5 bytes
+	 */
+	static int read(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	/**
+	 * @param in buffer positioned at a varint written by writeLong
+	 * @return The value read
+	 * @throws IllegalArgumentException if the varint takes more than 10 bytes
+	 */
+	static long readLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	/**
+	 * @param value value to measure
+	 * @return Number of bytes write takes for the value
+	 */
+	static int size(int value) {
+		int size = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+}
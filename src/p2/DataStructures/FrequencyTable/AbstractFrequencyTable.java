@@ -0,0 +1,73 @@
+package p2.DataStructures.FrequencyTable;
+
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Abstract Frequency Table Class
+ * 
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public abstract class AbstractFrequencyTable implements FrequencyTable {
+
+	/* ABSTRACT METHODS */
+
+	@Override
+	public abstract void add(int symbol, long count);
+
+	@Override
+	public abstract long get(int symbol);
+
+	@Override
+	public abstract int size();
+
+	@Override
+	public abstract int[] symbols();
+
+	@Override
+	public abstract void clear();
+
+	/* IMPLEMENTED METHODS */
+
+	@Override
+	public void increment(int symbol) {
+		add(symbol, 1);
+	}
+
+	@Override
+	public long total() {
+		long total = 0;
+		for (int symbol : symbols())
+			total += get(symbol);
+		return total;
+	}
+
+	@Override
+	public void addAll(FrequencyTable other) {
+		for (int symbol : other.symbols())
+			add(symbol, other.get(symbol));
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public Map<String, Integer> toMap() {
+		int[] symbols = symbols();
+
+		/* Find how much the counts need to be scaled down to fit in an int */
+		long max = 0;
+		for (int symbol : symbols)
+			max = Math.max(max, get(symbol));
+		int shift = 0;
+		while ((max >>> shift) > Integer.MAX_VALUE)
+			shift++;
+
+		Map<String, Integer> result = new HashTableOA<String, Integer>();
+		for (int symbol : symbols)
+			result.put(new String(Character.toChars(symbol)), (int) Math.max(get(symbol) >>> shift, 1));
+		return result;
+	}
+}
@@ -0,0 +1,116 @@
+package p2.DataStructures.FrequencyTable;
+
+/**
+ * Implementation of the Frequency Table ADT using a plain array 
+ * with one count per possible symbol, for small alphabets 
+ * like bytes (256 symbols) or chars (65536 symbols).
+ * 
+ * Counting a symbol is a single array increment.
+ * 
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class DenseFrequencyTable extends AbstractFrequencyTable {
+
+	public static final int BYTE_ALPHABET = 256;
+	public static final int CHAR_ALPHABET = Character.MAX_VALUE + 1;
+
+	// private fields
+	private final long[] counts;
+
+	public DenseFrequencyTable(int alphabetSize) {
+		if (alphabetSize < 1)
+			throw new IllegalArgumentException("Alphabet size must be at least 1");
+		counts = new long[alphabetSize];
+	}
+
+	/**
+	 * Creates a table backed by the given array of counts (not a copy), 
+	 * where the count of symbol i is counts[i].
+	 * 
+	 * @param counts array of counts indexed by symbol
+	 */
+	public DenseFrequencyTable(long[] counts) {
+		if (counts == null || counts.length < 1)
+			throw new IllegalArgumentException("Counts must have at least 1 symbol");
+		this.counts = counts;
+	}
+
+	@Override
+	public void increment(int symbol) {
+		counts[symbol]++;
+	}
+
+	@Override
+	public void add(int symbol, long count) {
+		if (symbol < 0 || symbol >= counts.length)
+			throw new IllegalArgumentException("Symbol out of the alphabet");
+		if (count < 0)
+			throw new IllegalArgumentException("Count cannot be negative");
+		counts[symbol] += count;
+	}
+
+	@Override
+	public long get(int symbol) {
+		return symbol >= 0 && symbol < counts.length ? counts[symbol] : 0;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (long count : counts)
+			if (count > 0)
+				size++;
+		return size;
+	}
+
+	@Override
+	public long total() {
+		long total = 0;
+		for (long count : counts)
+			total += count;
+		return total;
+	}
+
+	@Override
+	public int[] symbols() {
+		int[] result = new int[size()];
+		for (int symbol = 0, i = 0; symbol < counts.length; symbol++)
+			if (counts[symbol] > 0)
+				result[i++] = symbol;
+		return result;
+	}
+
+	@Override
+	public void addAll(FrequencyTable other) {
+		if (other instanceof DenseFrequencyTable && ((DenseFrequencyTable) other).counts.length <= counts.length) {
+			long[] otherCounts = ((DenseFrequencyTable) other).counts;
+			for (int i = 0; i < otherCounts.length; i++)
+				counts[i] += otherCounts[i];
+		}
+		else
+			super.addAll(other);
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+	}
+
+	/**
+	 * @return Number of symbols in the alphabet of this table
+	 */
+	public int alphabetSize() {
+		return counts.length;
+	}
+
+	/**
+	 * Returns the array backing this table, indexed by symbol. 
+	 * Changes to the array are reflected in the table.
+	 * 
+	 * @return Array of counts
+	 */
+	public long[] counts() {
+		return counts;
+	}
+}
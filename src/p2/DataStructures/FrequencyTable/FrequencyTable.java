@@ -0,0 +1,88 @@
+package p2.DataStructures.FrequencyTable;
+
+import p2.DataStructures.Map.Map;
+
+/**
+ * Frequency Table Abstract Data Type
+ * 
+ * Counts how many times each symbol appears, where symbols are 
+ * plain non-negative ints (a byte value, a char or a code point) 
+ * and counts are plain longs, so counting never allocates objects.
+ * 
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public interface FrequencyTable {
+
+	/**
+	 * Adds one to the count of the given symbol.
+	 * 
+	 * @param symbol	Symbol to count
+	 * @throws IllegalArgumentException if the symbol is not valid for this table
+	 */
+	public void increment(int symbol);
+
+	/**
+	 * Adds the given amount to the count of the given symbol.
+	 * 
+	 * @param symbol	Symbol to count
+	 * @param count		Amount to add, must not be negative
+	 * @throws IllegalArgumentException if the symbol is not valid for this table or the count is negative
+	 */
+	public void add(int symbol, long count);
+
+	/**
+	 * Method that returns the count of a given symbol, 0 if it was never counted.
+	 * 
+	 * @param symbol	Symbol to look for
+	 * @return			The count of the symbol
+	 */
+	public long get(int symbol);
+
+	/**
+	 * Method that returns the number of distinct symbols with a count above 0.
+	 * @return	Number of distinct symbols counted
+	 */
+	public int size();
+
+	/**
+	 * Method that returns the sum of the counts of all the symbols.
+	 * @return	Total number of symbols counted
+	 */
+	public long total();
+
+	/**
+	 * Method that returns every symbol with a count above 0, in ascending order.
+	 * @return	Array of symbols counted
+	 */
+	public int[] symbols();
+
+	/**
+	 * Adds every count of the other table into this one.
+	 * 
+	 * @param other	Table to add
+	 */
+	public void addAll(FrequencyTable other);
+
+	/**
+	 * Method that determines if no symbol has been counted.
+	 * @return	True if the size of the table is 0, false otherwise.
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Method that resets every count to 0.
+	 */
+	public void clear();
+
+	/**
+	 * Converts the table into the symbol frequency distribution map used by 
+	 * HuffmanCoding, where each symbol becomes the String with its character(s).
+	 * 
+	 * Map values are Integers, so if some count goes over Integer.MAX_VALUE all 
+	 * the counts are scaled down by the same power of 2 (never below 1). 
+	 * Otherwise the counts are copied exactly.
+	 * 
+	 * @return	Map from symbol to frequency
+	 */
+	public Map<String, Integer> toMap();
+}
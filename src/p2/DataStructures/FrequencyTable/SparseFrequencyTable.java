@@ -0,0 +1,128 @@
+package p2.DataStructures.FrequencyTable;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the Frequency Table ADT using an open addressing 
+ * (linear probing) hash table from int symbols to long counts, for 
+ * large alphabets where only a few symbols actually appear, like 
+ * Unicode code points.
+ * 
+ * Keys and counts live in two parallel primitive arrays, so counting a 
+ * symbol never allocates a node or boxes a number.
+ * 
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class SparseFrequencyTable extends AbstractFrequencyTable {
+
+	private static final int EMPTY = -1;
+	private static final int DEFAULT_SIZE = 16;
+	private final static double loadFactor = 0.5;
+
+	// private fields
+	private int[] keys;
+	private long[] counts;
+	private int currentSize;
+
+	public SparseFrequencyTable(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+
+		/* Capacity is always a power of 2, so the slot is just the low bits of the hash */
+		int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+		keys = new int[capacity];
+		counts = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		currentSize = 0;
+	}
+
+	public SparseFrequencyTable() {
+		this(DEFAULT_SIZE);
+	}
+
+	@Override
+	public void increment(int symbol) {
+		add(symbol, 1);
+	}
+
+	@Override
+	public void add(int symbol, long count) {
+		if (symbol < 0)
+			throw new IllegalArgumentException("Symbol cannot be negative");
+		if (count < 0)
+			throw new IllegalArgumentException("Count cannot be negative");
+
+		int slot = find(symbol);
+		if (keys[slot] == EMPTY) {
+			if (count == 0)
+				return;
+			keys[slot] = symbol;
+			currentSize++;
+			counts[slot] = count;
+			if (currentSize > keys.length * loadFactor)
+				rehash();
+		}
+		else
+			counts[slot] += count;
+	}
+
+	@Override
+	public long get(int symbol) {
+		if (symbol < 0)
+			return 0;
+		int slot = find(symbol);
+		return keys[slot] == EMPTY ? 0 : counts[slot];
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public int[] symbols() {
+		int[] result = new int[currentSize];
+		for (int slot = 0, i = 0; slot < keys.length; slot++)
+			if (keys[slot] != EMPTY)
+				result[i++] = keys[slot];
+		Arrays.sort(result);
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(counts, 0);
+		currentSize = 0;
+	}
+
+	/* Returns the slot holding the symbol, or the empty slot where it would go */
+	private int find(int symbol) {
+		int mask = keys.length - 1;
+		int slot = hash(symbol) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != symbol)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/* Spreads consecutive symbols (like the letters of an alphabet) all over the table */
+	private static int hash(int symbol) {
+		int h = symbol * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		long[] oldCounts = counts;
+		keys = new int[2 * oldKeys.length];
+		counts = new long[keys.length];
+		Arrays.fill(keys, EMPTY);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+}
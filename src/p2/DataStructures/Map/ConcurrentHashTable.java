@@ -0,0 +1,303 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.List;
+
+/**
+ * Implementation of the Hash Table ADT that many threads can use at once,
+ * using a Separate Chaining Collision Handling Scheme with lock striping.
+ *
+ * The buckets are split into stripes, each with its own lock, so threads
+ * changing keys of different stripes don't wait for each other. Lookups don't
+ * lock at all: the buckets are read through an AtomicReferenceArray and the links
+ * and values of the nodes are volatile, so a lookup always walks a whole chain,
+ * even while another thread is adding or removing one of its nodes.
+ *
+ * merge and compute run under the lock of the key's stripe, so they are atomic:
+ * counters shared by several threads can be updated with merge(key, 1, Integer::sum)
+ * without losing counts. Their functions should be short and must not use the map.
+ *
+ * getKeys, getValues, size and print see the entries as they were at some point
+ * while they ran, which may not be a single instant if other threads are changing the map.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ *
+ * @param <K> Generic value for keys to insert.
+ * @param <V> Generic value for values mapped to a certain key K.
+ */
+public class ConcurrentHashTable<K, V> implements Map<K, V> {
+
+	/* The key and hash of a node never change, and a node is never moved to another chain */
+	private static class Node<K, V> {
+		private final K key;
+		private final int hash;
+		private volatile V value;
+		private volatile Node<K, V> next;
+
+		public Node(K key, int hash, V value, Node<K, V> next) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+	}
+
+
+	// private fields
+	private volatile AtomicReferenceArray<Node<K, V>> table;
+	private final ReentrantLock[] locks;
+	private final int[] counts;		// Entries of each stripe, guarded by its lock
+	private HashFunction<K> hashFunction;
+	private final static double loadFactor = 0.75;
+	private static final int DEFAULT_SIZE = 16;
+	private static final int DEFAULT_CONCURRENCY = 16;
+
+
+	/**
+	 * @param initialCapacity number of buckets to start with
+	 * @param hashFunction hash function for the keys
+	 * @param concurrencyLevel number of threads expected to change the map at once,
+	 *                         which is rounded up to a power of 2 to get the number of stripes
+	 */
+	public ConcurrentHashTable(int initialCapacity, HashFunction<K> hashFunction, int concurrencyLevel) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		if (concurrencyLevel < 1 || concurrencyLevel > 1 << 16)
+			throw new IllegalArgumentException("Concurrency level must be between 1 and 65536");
+		if (hashFunction == null)
+			throw new IllegalArgumentException("Hash function cannot be null");
+
+		this.hashFunction = hashFunction;
+		int stripes = powerOfTwo(concurrencyLevel);
+		locks = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++)
+			locks[i] = new ReentrantLock();
+		counts = new int[stripes];
+
+		/* Never fewer buckets than stripes, so the stripe of a key is also the low bits of its bucket */
+		table = new AtomicReferenceArray<Node<K, V>>(powerOfTwo(Math.max(initialCapacity, stripes)));
+	}
+
+	public ConcurrentHashTable(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, hashFunction, DEFAULT_CONCURRENCY);
+	}
+
+	public ConcurrentHashTable(HashFunction<K> hashFunction) {
+		//delegate to this constructor if no capacity is entered by user
+		this(DEFAULT_SIZE, hashFunction);
+	}
+
+	public ConcurrentHashTable() {
+		this((key) -> key.hashCode());
+	}
+
+
+	@Override
+	public V get(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		for (Node<K, V> node = tab.get(hash & (tab.length() - 1)); node != null; node = node.next)
+			if (node.hash == hash && node.key.equals(key))
+				return node.value;
+		return null;
+	}
+
+	@Override
+	public void put(K key, V value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		compute(key, (k, oldValue) -> value);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+		if (key == null || value == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		return compute(key, (k, oldValue) -> oldValue == null ? value : remapping.apply(oldValue, value));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+		if (key == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		return update(key, remapping, false);
+	}
+
+	@Override
+	public V remove(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		return update(key, (k, oldValue) -> null, true);
+	}
+
+	/**
+	 * Replaces the value of a key with the result of the function, under the lock of its stripe.
+	 *
+	 * @param returnOld if true, returns the value the key had before instead of the new one
+	 */
+	private V update(K key, BiFunction<? super K, ? super V, ? extends V> remapping, boolean returnOld) {
+		int hash = hash(key);
+		int stripe = hash & (locks.length - 1);
+		AtomicReferenceArray<Node<K, V>> tab;
+		V oldValue, newValue;
+		boolean grow;
+
+		locks[stripe].lock();
+		try {
+			/* Growing takes every lock, so the table can't change while this one is held */
+			tab = table;
+			int bucket = hash & (tab.length() - 1);
+			Node<K, V> previous = null, node = tab.get(bucket);
+			while (node != null && (node.hash != hash || !node.key.equals(key))) {
+				previous = node;
+				node = node.next;
+			}
+
+			oldValue = node == null ? null : node.value;
+			newValue = remapping.apply(key, oldValue);
+			if (node != null && newValue != null)
+				node.value = newValue;
+			else if (node != null) {
+				/* Unlinking leaves the removed node pointing forward, so lookups already on it can go on */
+				if (previous == null)
+					tab.set(bucket, node.next);
+				else
+					previous.next = node.next;
+				counts[stripe]--;
+			}
+			else if (newValue != null) {
+				tab.set(bucket, new Node<K, V>(key, hash, newValue, tab.get(bucket)));
+				counts[stripe]++;
+			}
+			grow = counts[stripe] > loadFactor * tab.length() / locks.length;
+		} finally {
+			locks[stripe].unlock();
+		}
+
+		if (grow)
+			rehash(tab);
+		return returnOld ? oldValue : newValue;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public List<K> getKeys() {
+		List<K> result = new ArrayList<K>();
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		for (int i = 0; i < tab.length(); i++)
+			for (Node<K, V> node = tab.get(i); node != null; node = node.next)
+				result.add(node.key);
+		return result;
+	}
+
+	@Override
+	public List<V> getValues() {
+		List<V> result = new ArrayList<V>();
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		for (int i = 0; i < tab.length(); i++)
+			for (Node<K, V> node = tab.get(i); node != null; node = node.next)
+				result.add(node.value);
+		return result;
+	}
+
+	@Override
+	public int size() {
+		/* Each count is read under its lock, so none of them is stale */
+		int size = 0;
+		for (int i = 0; i < locks.length; i++) {
+			locks[i].lock();
+			try {
+				size += counts[i];
+			} finally {
+				locks[i].unlock();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		lockAll();
+		try {
+			table = new AtomicReferenceArray<Node<K, V>>(table.length());
+			for (int i = 0; i < counts.length; i++)
+				counts[i] = 0;
+		} finally {
+			unlockAll();
+		}
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		AtomicReferenceArray<Node<K, V>> tab = table;
+		for (int i = 0; i < tab.length(); i++)
+			for (Node<K, V> node = tab.get(i); node != null; node = node.next)
+				out.printf("(%s, %s)\n", node.key, node.value);
+	}
+
+	/**
+	 * Doubles the number of buckets, unless another thread already did since
+	 * the given table was read. Lookups keep walking the old table while the new
+	 * one is built, so its nodes are copied rather than relinked.
+	 */
+	private void rehash(AtomicReferenceArray<Node<K, V>> expected) {
+		lockAll();
+		try {
+			if (table != expected)
+				return;
+
+			AtomicReferenceArray<Node<K, V>> grown = new AtomicReferenceArray<Node<K, V>>(2 * expected.length());
+			int mask = grown.length() - 1;
+			for (int i = 0; i < expected.length(); i++)
+				for (Node<K, V> node = expected.get(i); node != null; node = node.next) {
+					int bucket = node.hash & mask;
+					grown.set(bucket, new Node<K, V>(node.key, node.hash, node.value, grown.get(bucket)));
+				}
+			table = grown;
+		} finally {
+			unlockAll();
+		}
+	}
+
+	/* Locks are always taken in the same order, so two threads taking all of them can't deadlock */
+	private void lockAll() {
+		for (ReentrantLock lock : locks)
+			lock.lock();
+	}
+
+	private void unlockAll() {
+		for (ReentrantLock lock : locks)
+			lock.unlock();
+	}
+
+	/* Mixes the hash code, since only its low bits pick the stripe and the bucket */
+	private int hash(K key) {
+		int h = hashFunction.hashCode(key) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int powerOfTwo(int n) {
+		return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+}
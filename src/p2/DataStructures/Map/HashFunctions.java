@@ -0,0 +1,148 @@
+package p2.DataStructures.Map;
+
+/**
+ * Ready-made Hash Functions
+ *
+ * Hash functions to plug into HashTableSC and HashTableOA. The old default,
+ * adding up the chars of the key, gives every anagram the same hash and packs
+ * short keys into a narrow range of small numbers, so tables built on it end up
+ * with a few very long chains. The functions here mix every bit of the input
+ * into every bit of the result instead:
+ *
+ *   murmur3   the 32-bit MurmurHash3 over the chars of the key (2 chars per block)
+ *   fmix      the MurmurHash3 finalizer over the key's own hashCode, for keys
+ *             whose hashCode is fine but not well spread (like Integer)
+ *   charSum   the old sum of chars, only kept to compare against (see HashQualityReport)
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public final class HashFunctions {
+
+	private static final int C1 = 0xCC9E2D51;
+	private static final int C2 = 0x1B873593;
+
+	private HashFunctions() {
+	}
+
+	/**
+	 * MurmurHash3 over the chars of the key. Keys that are CharSequences (like
+	 * Strings) are hashed char by char with no copy; any other key is hashed
+	 * by mixing its hashCode with fmix.
+	 *
+	 * @param seed seed of the hash
+	 * @return The hash function
+	 */
+	public static <K> HashFunction<K> murmur3(int seed) {
+		return (key) -> key instanceof CharSequence ? murmur3((CharSequence) key, seed) : fmix32(key.hashCode() ^ seed);
+	}
+
+	public static <K> HashFunction<K> murmur3() {
+		return murmur3(0);
+	}
+
+	/**
+	 * @return Hash function that runs the key's hashCode through the MurmurHash3 finalizer
+	 */
+	public static <K> HashFunction<K> fmix() {
+		return (key) -> fmix32(key.hashCode());
+	}
+
+	/**
+	 * @return The sum of the chars of key.toString(), the original default of HashTableSC
+	 */
+	public static <K> HashFunction<K> charSum() {
+		return (key) -> {
+			String temp = key.toString();
+			int result = 0;
+			for (int i = 0; i < temp.length(); i++)
+				result += temp.charAt(i);
+			return result;
+		};
+	}
+
+	/**
+	 * 32-bit MurmurHash3 of a sequence of chars, taking two chars per 32-bit block.
+	 *
+	 * @param chars chars to hash
+	 * @param seed seed of the hash
+	 * @return The hash of the chars
+	 */
+	public static int murmur3(CharSequence chars, int seed) {
+		int h = seed;
+		int length = chars.length();
+
+		/* Two chars at a time */
+		for (int i = 1; i < length; i += 2)
+			h = mixH(h, mixK(chars.charAt(i - 1) | (chars.charAt(i) << 16)));
+
+		/* Odd char left over */
+		if ((length & 1) == 1)
+			h ^= mixK(chars.charAt(length - 1));
+
+		return fmix32(h ^ (2 * length));
+	}
+
+	/**
+	 * 32-bit MurmurHash3 of a range of bytes.
+	 *
+	 * @param data bytes to hash
+	 * @param offset index of the first byte
+	 * @param length number of bytes to hash
+	 * @param seed seed of the hash
+	 * @return The hash of the bytes
+	 */
+	@SuppressWarnings("fallthrough")
+	public static int murmur3(byte[] data, int offset, int length, int seed) {
+		int h = seed;
+		int blocks = length & ~3;
+
+		/* Four bytes at a time, little endian */
+		for (int i = offset; i < offset + blocks; i += 4) {
+			int k = (data[i] & 0xFF) | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF) << 16 | data[i + 3] << 24;
+			h = mixH(h, mixK(k));
+		}
+
+		/* Up to three bytes left over */
+		int k = 0;
+		switch (length & 3) {
+		case 3:
+			k ^= (data[offset + blocks + 2] & 0xFF) << 16;
+			// fall through
+		case 2:
+			k ^= (data[offset + blocks + 1] & 0xFF) << 8;
+			// fall through
+		case 1:
+			k ^= data[offset + blocks] & 0xFF;
+			h ^= mixK(k);
+		}
+
+		return fmix32(h ^ length);
+	}
+
+	/**
+	 * The MurmurHash3 finalizer: every input bit flips each output bit with a probability close to 1/2.
+	 *
+	 * @param h value to mix
+	 * @return The mixed value
+	 */
+	public static int fmix32(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	private static int mixK(int k) {
+		k *= C1;
+		k = Integer.rotateLeft(k, 15);
+		return k * C2;
+	}
+
+	private static int mixH(int h, int k) {
+		h ^= k;
+		h = Integer.rotateLeft(h, 13);
+		return h * 5 + 0xE6546B64;
+	}
+}
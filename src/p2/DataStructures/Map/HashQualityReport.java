@@ -0,0 +1,128 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+
+/**
+ * Hash Quality Report
+ *
+ * Shows how well a hash function spreads a given set of keys over the buckets
+ * of a separate chaining table (like HashTableSC), using the same bucket index
+ * the table would: how many buckets end up used, how long the chains get, and
+ * how many key comparisons a lookup takes on average, compared to what a
+ * perfectly uniform hash would give for the same number of keys and buckets.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ *
+ * @param <K> Generic data type for the keys to hash
+ */
+public class HashQualityReport<K> {
+
+	private final int keyCount;
+	private final int bucketCount;
+	private final int usedBuckets;
+	private final int maxChainLength;
+	private final double expectedProbesHit;
+	private final double expectedProbesMiss;
+
+	/**
+	 * @param keys distinct keys to place
+	 * @param hashFunction hash function to test
+	 * @param bucketCount number of buckets to spread the keys over
+	 */
+	public HashQualityReport(Iterable<K> keys, HashFunction<K> hashFunction, int bucketCount) {
+		if (bucketCount < 1)
+			throw new IllegalArgumentException("There must be at least one bucket");
+		if (keys == null || hashFunction == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int[] chains = new int[bucketCount];
+		int count = 0;
+		for (K key : keys) {
+			chains[HashTableSC.bucketIndex(hashFunction.hashCode(key), bucketCount)]++;
+			count++;
+		}
+
+		/**
+		 * Finding the i-th key of a chain takes i comparisons, so a chain of length c
+		 * adds c(c+1)/2 to the total of all successful lookups. A missing key with the
+		 * same hash distribution as the keys lands on a chain of length c with
+		 * probability c/n and compares against all of it.
+		 */
+		int used = 0, max = 0;
+		long hitProbes = 0, missProbes = 0;
+		for (int chain : chains) {
+			if (chain > 0)
+				used++;
+			max = Math.max(max, chain);
+			hitProbes += (long) chain * (chain + 1) / 2;
+			missProbes += (long) chain * chain;
+		}
+
+		this.keyCount = count;
+		this.bucketCount = bucketCount;
+		this.usedBuckets = used;
+		this.maxChainLength = max;
+		this.expectedProbesHit = count == 0 ? 0 : (double) hitProbes / count;
+		this.expectedProbesMiss = count == 0 ? 0 : (double) missProbes / count;
+	}
+
+	public int getKeyCount() {
+		return keyCount;
+	}
+
+	public int getBucketCount() {
+		return bucketCount;
+	}
+
+	/**
+	 * @return Number of buckets holding at least one key
+	 */
+	public int getUsedBuckets() {
+		return usedBuckets;
+	}
+
+	/**
+	 * @return Length of the longest chain
+	 */
+	public int getMaxChainLength() {
+		return maxChainLength;
+	}
+
+	/**
+	 * @return Average length of the chains that are not empty
+	 */
+	public double getAverageChainLength() {
+		return usedBuckets == 0 ? 0 : (double) keyCount / usedBuckets;
+	}
+
+	/**
+	 * @return Average number of comparisons to find a key in the set
+	 */
+	public double getExpectedProbesHit() {
+		return expectedProbesHit;
+	}
+
+	/**
+	 * @return Average number of comparisons to find out a key with the same hash distribution is missing
+	 */
+	public double getExpectedProbesMiss() {
+		return expectedProbesMiss;
+	}
+
+	/**
+	 * @return Average number of comparisons to find a key with a perfectly uniform hash
+	 */
+	public double getIdealProbesHit() {
+		return keyCount == 0 ? 0 : 1 + (keyCount - 1) / (2.0 * bucketCount);
+	}
+
+	/**
+	 * Prints the report for debugging purposes.
+	 * @param out	Stream to print out the report to
+	 */
+	public void print(PrintStream out) {
+		out.printf("Keys: %d, Buckets: %d (%d used)\n", keyCount, bucketCount, usedBuckets);
+		out.printf("Chain length: max %d, average %.2f\n", maxChainLength, getAverageChainLength());
+		out.printf("Expected probes: hit %.2f (ideal %.2f), miss %.2f\n", expectedProbesHit, getIdealProbesHit(), expectedProbesMiss);
+	}
+}
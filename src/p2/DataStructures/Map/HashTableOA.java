@@ -0,0 +1,297 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.List;
+
+/**
+ * Implementation of the Hash Table ADT using an
+ * Open Addressing (Linear Probing) Collision Handling Scheme.
+ *
+ * Keys, values and the hash code of every key live in three parallel arrays,
+ * so a lookup walks consecutive slots of the same arrays instead of following
+ * the nodes of a bucket's linked list, and no node is allocated per entry.
+ * Comparing the cached hash codes first means equals is only called on
+ * keys that are almost certainly the one being searched.
+ *
+ * The capacity is always a power of 2, so the home slot of a key is just the
+ * low bits of its (mixed) hash code. Removing a key shifts the following keys
+ * of its run back into the hole, so there are no tombstones slowing lookups down.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ *
+ * @param <K> Generic value for keys to insert.
+ * @param <V> Generic value for values mapped to a certain key K.
+ */
+public class HashTableOA<K, V> implements InstrumentedMap<K, V> {
+
+	// private fields
+	private int currentSize;
+	private K[] keys;
+	private V[] values;
+	private int[] hashes;
+	private HashFunction<K> hashFunction;
+	private MapStatistics statistics;	// null while statistics are off
+	private final static double loadFactor = 0.5;
+	private static final int DEFAULT_SIZE = 16;
+
+
+	public HashTableOA(int initialCapacity, HashFunction<K> hashFunction) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		if (hashFunction == null)
+			throw new IllegalArgumentException("Hash function cannot be null");
+
+		currentSize = 0;
+		this.hashFunction = hashFunction;
+		allocate(Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1);
+	}
+
+	public HashTableOA(HashFunction<K> hashFunction) {
+		//delegate to this constructor if no capacity is entered by user
+		this(DEFAULT_SIZE, hashFunction);
+	}
+
+	public HashTableOA() {
+		this((key) -> key.hashCode());
+	}
+
+
+	@Override
+	public V get(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int slot = find(key, hash(key));
+		return keys[slot] == null ? null : values[slot];
+	}
+
+	@Override
+	public void put(K key, V value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		/* Either the slot already holding the key, or the empty slot where it goes */
+		int hash = hash(key);
+		int slot = find(key, hash);
+		if (keys[slot] != null) {
+			values[slot] = value;
+			return;
+		}
+
+		insert(slot, key, value, hash);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+		if (key == null || value == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = find(key, hash);
+		if (keys[slot] == null) {
+			insert(slot, key, value, hash);
+			return value;
+		}
+		return update(slot, remapping.apply(values[slot], value));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+		if (key == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = find(key, hash);
+		if (keys[slot] != null)
+			return update(slot, remapping.apply(key, values[slot]));
+
+		V newValue = remapping.apply(key, null);
+		if (newValue != null)
+			insert(slot, key, newValue, hash);
+		return newValue;
+	}
+
+	@Override
+	public V remove(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int slot = find(key, hash(key));
+		if (keys[slot] == null)
+			return null;
+		V result = values[slot];
+		delete(slot);
+		return result;
+	}
+
+	/* Stores a key that is not in the table in the empty slot find returned for it */
+	private void insert(int slot, K key, V value, int hash) {
+		keys[slot] = key;
+		values[slot] = value;
+		hashes[slot] = hash;
+		currentSize++;
+		if (currentSize > keys.length * loadFactor) {
+			long start = statistics != null ? System.nanoTime() : 0;
+			rehash();
+			if (statistics != null)
+				statistics.recordRehash(System.nanoTime() - start);
+		}
+	}
+
+	/* Stores the new value of an occupied slot, deleting its key if the value is null */
+	private V update(int slot, V newValue) {
+		if (newValue != null)
+			values[slot] = newValue;
+		else
+			delete(slot);
+		return newValue;
+	}
+
+	/* Empties an occupied slot */
+	private void delete(int hole) {
+		/**
+		 * Shift back every key of the run that can't be found anymore with the hole
+		 * in the way, which is any key whose home slot is not between the hole and itself
+		 */
+		int mask = keys.length - 1;
+		for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+			int home = hashes[next] & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				values[hole] = values[next];
+				hashes[hole] = hashes[next];
+				hole = next;
+			}
+		}
+		keys[hole] = null;
+		values[hole] = null;
+		currentSize--;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public List<K> getKeys() {
+		List<K> result = new ArrayList<K>(Math.max(currentSize, 1));
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				result.add(keys[i]);
+		return result;
+	}
+
+	@Override
+	public List<V> getValues() {
+		List<V> result = new ArrayList<V>(Math.max(currentSize, 1));
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				result.add(values[i]);
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		currentSize = 0;
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				out.printf("(%s, %s)\n", keys[i], values[i]);
+	}
+
+	@Override
+	public void setStatisticsEnabled(boolean enabled) {
+		statistics = enabled ? new MapStatistics() : null;
+	}
+
+	@Override
+	public MapStatistics getStatistics() {
+		if (statistics == null)
+			return null;
+
+		/* Every run of occupied slots is a chain, and the last one can wrap around to the first slots */
+		int max = 0, runs = 0, run = 0;
+		int start = 0;
+		while (start < keys.length && keys[start] != null)
+			start++;
+		for (int i = 1; i <= keys.length; i++) {
+			if (keys[(start + i) & (keys.length - 1)] != null)
+				run++;
+			else if (run > 0) {
+				max = Math.max(max, run);
+				runs++;
+				run = 0;
+			}
+		}
+		statistics.recordChains(max, runs == 0 ? 0 : (double) size() / runs);
+		return statistics;
+	}
+
+	/* Returns the slot holding the key, or the empty slot where it would go */
+	private int find(K key, int hash) {
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		while (keys[slot] != null && (hashes[slot] != hash || !keys[slot].equals(key)))
+			slot = (slot + 1) & mask;
+
+		/* Every slot from the home slot up to this one was looked at */
+		if (statistics != null) {
+			int probes = (slot - hash) & mask;
+			statistics.recordLookup(keys[slot] != null, keys[slot] != null ? probes + 1 : probes);
+		}
+		return slot;
+	}
+
+	/* Mixes the hash code, since only its low bits pick the slot */
+	private int hash(K key) {
+		int h = hashFunction.hashCode(key) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = (K[]) new Object[capacity];
+		values = (V[]) new Object[capacity];
+		hashes = new int[capacity];
+	}
+
+	private void rehash() {
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(2 * oldKeys.length);
+
+		/* The cached hash codes place every key without calling the hash function again */
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (keys[slot] != null)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				hashes[slot] = oldHashes[i];
+			}
+		}
+	}
+}
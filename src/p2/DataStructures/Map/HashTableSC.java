@@ -1,7 +1,9 @@
 package p2.DataStructures.Map;
 
 import java.io.PrintStream;
+import java.util.function.BiFunction;
 
+import p2.DataStructures.List.ArrayList;
 import p2.DataStructures.List.LinkedList;
 import p2.DataStructures.List.List;
 
@@ -9,12 +11,17 @@ import p2.DataStructures.List.List;
  * Implementation of the Hash Table ADT using a 
  * Separate Chaining Collision Handling Scheme.
  * 
+ * The table can grow incrementally: instead of moving every entry to the
+ * new buckets inside the put that fills the table, it keeps the old buckets
+ * around and every operation moves a few of them, so the cost of growing is
+ * spread over many operations. Lookups check both sets of buckets meanwhile.
+ * 
  * @author Fabian Ruiz - fabianruiz3
  *
  * @param <K> Generic value for keys to insert.
  * @param <V> Generic value for values mapped to a certain key K.
  */
-public class HashTableSC<K, V> implements Map<K, V> {
+public class HashTableSC<K, V> implements InstrumentedMap<K, V> {
 
 	/**
 	 * The values in the linked lists within our buckets will be of this type.
@@ -23,10 +30,12 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	private static class BucketNode<K, V> {
 		private K key;
 		private V value;
+		private int hash;	// Cached so moving the node to a new bucket doesn't hash the key again
 
-		public BucketNode(K key, V value) {
+		public BucketNode(K key, V value, int hash) {
 			this.key = key;
 			this.value = value;
+			this.hash = hash;
 		}
 
 		public K getKey() {
@@ -36,19 +45,35 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		public V getValue() {
 			return value;
 		}
+
+		public int getHash() {
+			return hash;
+		}
 	}
 
 
 	// private fields
 	private int currentSize;
-	private List<BucketNode<K, V>>[] buckets;
+	private List<BucketNode<K, V>>[] buckets;		// A null bucket is an empty one
+	private List<BucketNode<K, V>>[] oldBuckets;	// Buckets still being moved by an incremental rehash, null if none
+	private int movedBuckets;						// How many of the old buckets were already moved
+	private final boolean incremental;
 	private HashFunction<K> hashFunction;
+	private MapStatistics statistics;	// null while statistics are off
 	private final static double loadFactor = 0.75;
 	private static final int DEFAULT_SIZE = 11;
+	private static final int MOVES_PER_OPERATION = 4;
 
 
+	/**
+	 * @param initialCapacity number of buckets to start with
+	 * @param hashFunction hash function for the keys
+	 * @param incremental if true, growing the table moves the entries a few buckets at a time
+	 *                    on every operation instead of all at once inside a single put, so no
+	 *                    operation takes much longer than the others
+	 */
 	@SuppressWarnings("unchecked")
-	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction, boolean incremental) {
 		if (initialCapacity < 1)
 			throw new IllegalArgumentException("Capacity must be at least 1");
 		if (hashFunction == null)
@@ -56,10 +81,12 @@ public class HashTableSC<K, V> implements Map<K, V> {
 
 		currentSize = 0;
 		this.hashFunction = hashFunction;
+		this.incremental = incremental;
 		buckets = new LinkedList[initialCapacity];
-		for (int i = 0; i < initialCapacity; i++)
-			buckets[i] = new LinkedList<BucketNode<K, V>>();
+	}
 
+	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, hashFunction, false);
 	}
 
 	public HashTableSC(HashFunction<K> hashFunction) { 
@@ -69,13 +96,8 @@ public class HashTableSC<K, V> implements Map<K, V> {
 
 
 	public HashTableSC() {
-		this((key) -> {
-			String temp = key.toString();
-			int result = 0;
-			for (int i = 0; i < temp.length(); i++)
-				result += temp.charAt(i);
-			return result;
-		});
+		/* Summing the chars made every anagram collide, see HashFunctions */
+		this(HashFunctions.murmur3());
 	}
 
 
@@ -84,17 +106,9 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		if (key == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
 
-		/* First we determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Look for the key within the nodes of that linked list */
-		for (BucketNode<K, V> BN : L) {
-			if (BN.getKey().equals(key)) // Found it!
-				return BN.getValue();
-		}
-
-		return null; // Did not find it
+		moveSomeBuckets();
+		BucketNode<K, V> BN = find(key, hashFunction.hashCode(key), false);
+		return BN == null ? null : BN.getValue(); 
 	}
 
 	@Override
@@ -102,42 +116,161 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		if (key == null || value == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
 		
+		moveSomeBuckets();
+
 		/* Can't have two elements with same key,
-		 * so remove existing element with the given key (if any) */
-		remove(key);
+		 * so replace the value of the existing element with the given key (if any) */
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V> BN = find(key, hash, false);
+		if (BN != null)
+			BN.value = value;
+		else
+			insert(key, value, hash);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+		if (key == null || value == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
 
-		if((size() / buckets.length) > loadFactor) 
+		moveSomeBuckets();
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V> BN = find(key, hash, false);
+		if (BN == null) {
+			insert(key, value, hash);
+			return value;
+		}
+		return update(BN, remapping.apply(BN.getValue(), value));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+		if (key == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		moveSomeBuckets();
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V> BN = find(key, hash, false);
+		if (BN != null)
+			return update(BN, remapping.apply(key, BN.getValue()));
+
+		V newValue = remapping.apply(key, null);
+		if (newValue != null)
+			insert(key, newValue, hash);
+		return newValue;
+	}
+
+	/* Adds a key known not to be in the table to the linked list of its bucket, growing the table first if needed */
+	private void insert(K key, V value, int hash) {
+		if(((double) size() / buckets.length) > loadFactor) 
 			rehash();
 
-		/* Determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Finally, add the key/value to the linked list */
-		L.add(0, new BucketNode<K, V>(key, value));
+		bucket(buckets, hash).add(0, new BucketNode<K, V>(key, value, hash));
 		currentSize++;
 	}
 
+	/* Stores the new value of a node already found, removing the node if the value is null */
+	private V update(BucketNode<K, V> BN, V newValue) {
+		if (newValue != null)
+			BN.value = newValue;
+		else
+			remove(BN.getKey());
+		return newValue;
+	}
+
+	/**
+	 * Doubles the number of buckets. Unless the table is incremental,
+	 * every entry is moved to the new buckets right away.
+	 */
 	@SuppressWarnings("unchecked")
 	private void rehash() {
-		List<BucketNode<K,V>>[] oldMap = buckets;
-		List<BucketNode<K,V>>[] newMap = new LinkedList[size() * 2];
-		buckets = newMap;
-		for (int i = 0; i < buckets.length; i++) {
-			buckets[i] = new LinkedList<BucketNode<K,V>>();
+		/* A rehash still in progress has to end before another one starts */
+		if (oldBuckets != null)
+			moveBuckets(oldBuckets.length);
+
+		long start = statistics != null ? System.nanoTime() : 0;
+		oldBuckets = buckets;
+		movedBuckets = 0;
+		buckets = new LinkedList[2 * oldBuckets.length + 1];
+		if (!incremental)
+			moveBuckets(oldBuckets.length);
+		if (statistics != null)
+			statistics.recordRehash(System.nanoTime() - start);
+	}
+
+	/* One step of an incremental rehash, if one is in progress */
+	private void moveSomeBuckets() {
+		if (oldBuckets == null)
+			return;
+		long start = statistics != null ? System.nanoTime() : 0;
+		moveBuckets(MOVES_PER_OPERATION);
+		if (statistics != null)
+			statistics.recordRehashTime(System.nanoTime() - start);
+	}
+
+	/* Moves the nodes of up to count old buckets into the new ones, reusing the nodes */
+	private void moveBuckets(int count) {
+		for (int moved = 0; moved < count && movedBuckets < oldBuckets.length; moved++, movedBuckets++) {
+			List<BucketNode<K, V>> L = oldBuckets[movedBuckets];
+			if (L != null)
+				for (BucketNode<K, V> BN : L)
+					bucket(buckets, BN.getHash()).add(0, BN);
+			oldBuckets[movedBuckets] = null;
 		}
-		for (List<BucketNode<K, V>> list : oldMap) {
-			for (BucketNode<K, V> old : list) {
-				/* Determine the bucket corresponding to this key */
-				int targetBucket = hashFunction.hashCode(old.getKey()) % buckets.length;
-				/* Within that bucket there is a linked list, since we're using Separate Chaining */
-				List<BucketNode<K, V>> L = buckets[targetBucket];
-				/* Finally, add the key/value to the linked list */
-				L.add(0, new BucketNode<K, V>(old.getKey(), old.getValue()));
+		if (movedBuckets == oldBuckets.length)
+			oldBuckets = null;
+	}
 
+	/* Linked list of the bucket of the given hash, created the first time something goes in */
+	private List<BucketNode<K, V>> bucket(List<BucketNode<K, V>>[] table, int hash) {
+		int targetBucket = bucketIndex(hash, table.length);
+		if (table[targetBucket] == null)
+			table[targetBucket] = new LinkedList<BucketNode<K, V>>();
+		return table[targetBucket];
+	}
+
+	/**
+	 * Looks for the key in its bucket, and in its old bucket if a rehash is still moving them.
+	 *
+	 * @param remove if true, the node found is also removed from its list
+	 * @return The node holding the key, null if the key is not in the table
+	 */
+	private BucketNode<K, V> find(K key, int hash, boolean remove) {
+		int probes = 0;
+		for (int i = 0; i < 2; i++) {
+			List<BucketNode<K, V>>[] table = i == 0 ? buckets : oldBuckets;
+			if (table == null)
+				break;
+
+			/* Within the bucket there is a linked list, since we're using Separate Chaining */
+			List<BucketNode<K, V>> L = table[bucketIndex(hash, table.length)];
+			if (L == null)
+				continue;
+			int pos = 0;
+			for (BucketNode<K, V> BN : L) {
+				probes++;
+				if (BN.getKey().equals(key)) { // Found it!
+					if (remove)
+						L.remove(pos);
+					if (statistics != null)
+						statistics.recordLookup(true, probes);
+					return BN;
+				}
+				pos++;
 			}
 		}
 
+		if (statistics != null)
+			statistics.recordLookup(false, probes);
+		return null; // Did not find it
+	}
+
+	/**
+	 * Bucket of a hash code, masking off the sign bit first
+	 * so negative hash codes don't give a negative index.
+	 */
+	static int bucketIndex(int hash, int bucketCount) {
+		return (hash & 0x7FFFFFFF) % bucketCount;
 	}
 
 	@Override
@@ -145,22 +278,12 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		if (key == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
 
-		/* First we determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Iterate over linked list trying to find this the key */
-		int pos = 0;
-		for (BucketNode<K, V> BN : L) {
-			if (BN.getKey().equals(key)) { // Found it!
-				L.remove(pos);
-				currentSize--;
-				return BN.getValue();
-			}
-			else
-				pos++;
-		}
-		return null;
+		moveSomeBuckets();
+		BucketNode<K, V> BN = find(key, hashFunction.hashCode(key), true);
+		if (BN == null)
+			return null;
+		currentSize--;
+		return BN.getValue();
 	}
 
 	@Override
@@ -172,8 +295,8 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	public List<K> getKeys() {
 		List<K> result = new LinkedList<K>();
 		/* For each bucket in the hash table, get the keys in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
+		for (List<BucketNode<K, V>> L : allBuckets())
+			for (BucketNode<K, V> BN : L)
 				result.add(0, BN.getKey());
 		return result;
 	}
@@ -182,8 +305,8 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	public List<V> getValues() {
 		List<V> result = new LinkedList<V>();
 		/* For each bucket in the hash table, get the values in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
+		for (List<BucketNode<K, V>> L : allBuckets())
+			for (BucketNode<K, V> BN : L)
 				result.add(0, BN.getValue());
 		return result;
 	}
@@ -202,14 +325,49 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	public void clear() {
 		currentSize = 0;
 		for (int i = 0; i < buckets.length; i++)
-			buckets[i].clear();
+			buckets[i] = null;
+		oldBuckets = null;
 	}
 
 	@Override
 	public void print(PrintStream out) {
 		/* For each bucket in the hash table, print the elements in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
+		for (List<BucketNode<K, V>> L : allBuckets())
+			for (BucketNode<K, V> BN : L)
 				out.printf("(%s, %s)\n", BN.getKey(), BN.getValue());
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void setStatisticsEnabled(boolean enabled) {
+		statistics = enabled ? new MapStatistics() : null;
+	}
+
+	@Override
+	public MapStatistics getStatistics() {
+		if (statistics == null)
+			return null;
+
+		/* Every bucket is a chain */
+		int max = 0, used = 0;
+		for (List<BucketNode<K, V>> L : allBuckets()) {
+			max = Math.max(max, L.size());
+			if (!L.isEmpty())
+				used++;
+		}
+		statistics.recordChains(max, used == 0 ? 0 : (double) size() / used);
+		return statistics;
+	}
+
+	/* Every bucket that was created, including the old ones of an incremental rehash in progress */
+	private List<List<BucketNode<K, V>>> allBuckets() {
+		List<List<BucketNode<K, V>>> result = new ArrayList<List<BucketNode<K, V>>>();
+		for (int i = 0; i < buckets.length; i++)
+			if (buckets[i] != null)
+				result.add(buckets[i]);
+		if (oldBuckets != null)
+			for (int i = movedBuckets; i < oldBuckets.length; i++)
+				if (oldBuckets[i] != null)
+					result.add(oldBuckets[i]);
+		return result;
+	}
+}
@@ -0,0 +1,31 @@
+package p2.DataStructures.Map;
+
+/**
+ * Map that can keep statistics about its own performance.
+ *
+ * Statistics are off by default. While they are off the map doesn't
+ * count anything, so the only cost is checking whether they are on.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ *
+ * @param <K> Generic Data Type of Keys to store
+ * @param <V> Generic Data Type of Value associated to a given key
+ */
+public interface InstrumentedMap<K, V> extends Map<K, V> {
+
+	/**
+	 * Method that turns the statistics on or off.
+	 * Turning them on starts counting from 0.
+	 *
+	 * @param enabled	True to keep statistics, false to stop
+	 */
+	public void setStatisticsEnabled(boolean enabled);
+
+	/**
+	 * Method that returns the statistics counted since they were turned on,
+	 * with the chain lengths of the map as it is now.
+	 *
+	 * @return	The statistics of the map, null if they are off
+	 */
+	public MapStatistics getStatistics();
+}
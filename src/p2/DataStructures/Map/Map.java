@@ -1,6 +1,7 @@
 package p2.DataStructures.Map;
 
 import java.io.PrintStream;
+import java.util.function.BiFunction;
 
 import p2.DataStructures.List.List;
 
@@ -49,6 +50,69 @@ public interface Map<K, V> {
 	 */
 	public boolean containsKey(K key);
 	
+	/**
+	 * Method that returns the value that is mapped to a given key, 
+	 * or a given default value if the key is not present in the map.
+	 * 
+	 * @param key			Given key to look for in map
+	 * @param defaultValue	Value to return if the key is not present
+	 * @return				The value associated to the given key, defaultValue if there is none
+	 */
+	public default V getOrDefault(K key, V defaultValue) {
+		V value = get(key);
+		return value == null ? defaultValue : value;
+	}
+	
+	/**
+	 * Method that associates a given value to a given key if the key is not present in the map, 
+	 * or combines it with the value already associated to it otherwise 
+	 * (e.g. merge(symbol, 1, Integer::sum) to count a symbol).
+	 * If the combination is null, the key is removed from the map.
+	 * 
+	 * Implementations should find the key only once, rather than once for get and again for put.
+	 * 
+	 * @param key		Given key to store in map
+	 * @param value		Value to store if the key is not present
+	 * @param remapping	Function combining the old value and the given value
+	 * @return			The value now associated to the key, null if it was removed
+	 */
+	public default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+		if (key == null || value == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		
+		V oldValue = get(key);
+		V newValue = oldValue == null ? value : remapping.apply(oldValue, value);
+		if (newValue == null)
+			remove(key);
+		else
+			put(key, newValue);
+		return newValue;
+	}
+	
+	/**
+	 * Method that associates to a given key the result of a function of the key 
+	 * and the value currently associated to it (null if the key is not present). 
+	 * If the result is null, the key is removed from the map.
+	 * 
+	 * Implementations should find the key only once, rather than once for get and again for put.
+	 * 
+	 * @param key		Given key to store in map
+	 * @param remapping	Function computing the new value from the key and the old value
+	 * @return			The value now associated to the key, null if there is none
+	 */
+	public default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+		if (key == null || remapping == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		
+		V oldValue = get(key);
+		V newValue = remapping.apply(key, oldValue);
+		if (newValue != null)
+			put(key, newValue);
+		else if (oldValue != null)
+			remove(key);
+		return newValue;
+	}
+	
 	/**
 	 * Method that returns a list of all the keys stored in the map.
 	 * @return 	List of keys in map
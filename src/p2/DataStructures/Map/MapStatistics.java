@@ -0,0 +1,141 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+
+/**
+ * Map Statistics
+ *
+ * Counters kept by an InstrumentedMap while its statistics are enabled:
+ * how many lookups it served, how many keys each lookup had to compare
+ * (probes) when it found the key and when it didn't, how many times it
+ * grew and how long growing took. The length of its chains (the runs of
+ * occupied slots, for open addressing) is measured when the statistics are read.
+ *
+ * Together they tell apart a slow run caused by a bad hash function (long
+ * chains, many probes per lookup) from one caused by growth (many rehashes,
+ * or a lot of time spent in them).
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class MapStatistics {
+
+	private long lookups;
+	private long hits;
+	private long hitProbes;
+	private long missProbes;
+	private long rehashes;
+	private long rehashNanos;
+	private int maxChainLength;
+	private double averageChainLength;
+
+	/**
+	 * Records a lookup of a key.
+	 *
+	 * @param found whether the key was in the map
+	 * @param probes number of keys compared
+	 */
+	void recordLookup(boolean found, int probes) {
+		lookups++;
+		if (found) {
+			hits++;
+			hitProbes += probes;
+		}
+		else
+			missProbes += probes;
+	}
+
+	/**
+	 * Records one growth of the map.
+	 *
+	 * @param nanos time it took
+	 */
+	void recordRehash(long nanos) {
+		rehashes++;
+		rehashNanos += nanos;
+	}
+
+	/**
+	 * Records time spent on a growth already counted, for maps that grow a bit at a time.
+	 *
+	 * @param nanos time it took
+	 */
+	void recordRehashTime(long nanos) {
+		rehashNanos += nanos;
+	}
+
+	/**
+	 * Stores the current shape of the map.
+	 *
+	 * @param max length of the longest chain
+	 * @param average average length of the chains that are not empty
+	 */
+	void recordChains(int max, double average) {
+		maxChainLength = max;
+		averageChainLength = average;
+	}
+
+	public long getLookups() {
+		return lookups;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return lookups - hits;
+	}
+
+	/**
+	 * @return Average number of keys compared by lookups that found their key
+	 */
+	public double getAverageProbesHit() {
+		return hits == 0 ? 0 : (double) hitProbes / hits;
+	}
+
+	/**
+	 * @return Average number of keys compared by lookups that didn't find their key
+	 */
+	public double getAverageProbesMiss() {
+		return getMisses() == 0 ? 0 : (double) missProbes / getMisses();
+	}
+
+	public long getRehashCount() {
+		return rehashes;
+	}
+
+	/**
+	 * @return Total time spent growing the map, in nanoseconds
+	 */
+	public long getRehashNanos() {
+		return rehashNanos;
+	}
+
+	public int getMaxChainLength() {
+		return maxChainLength;
+	}
+
+	public double getAverageChainLength() {
+		return averageChainLength;
+	}
+
+	/**
+	 * Sets every counter back to 0.
+	 */
+	public void reset() {
+		lookups = hits = hitProbes = missProbes = rehashes = rehashNanos = 0;
+		maxChainLength = 0;
+		averageChainLength = 0;
+	}
+
+	/**
+	 * Prints the counters for debugging purposes.
+	 * @param out	Stream to print out the counters to
+	 */
+	public void print(PrintStream out) {
+		out.printf("Lookups: %d (%d hits, %d misses)\n", lookups, hits, getMisses());
+		out.printf("Probes per lookup: hit %.2f, miss %.2f\n", getAverageProbesHit(), getAverageProbesMiss());
+		out.printf("Chain length: max %d, average %.2f\n", maxChainLength, averageChainLength);
+		out.printf("Rehashes: %d (%.3f ms)\n", rehashes, rehashNanos / 1e6);
+	}
+}
@@ -0,0 +1,169 @@
+package p2.DataStructures.PriorityQueue;
+
+/**
+ * Implementation of a Priority Queue using an array based binary min-heap.
+ * 
+ * The element at index i has its children at 2i+1 and 2i+2, and is never 
+ * greater than them, so the smallest element is always at index 0. 
+ * Adding and removing an element only moves it along one root to leaf path, 
+ * so both take O(log n) instead of the O(n) walk of a SortedLinkedList.
+ * 
+ * Elements that compare as equal come out in the same order they went in, 
+ * since every element is tagged with its insertion number to break ties.
+ * 
+ * @author Fabian Ruiz - fabianruiz3
+ *
+ * @param <E> Generic comparable data type
+ */
+public class BinaryHeap<E extends Comparable<? super E>> implements PriorityQueue<E> {
+
+	private static final int DEFAULT_SIZE = 11;
+
+	// private fields
+	private E[] elements;
+	private long[] order;		// Insertion number of each element, to break ties
+	private long insertions;
+	private int currentSize;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public BinaryHeap(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		elements = (E[]) new Comparable[initialCapacity];
+		order = new long[initialCapacity];
+		insertions = 0;
+		currentSize = 0;
+	}
+
+	public BinaryHeap() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Builds a heap with all the given elements at once, in O(n) time, 
+	 * by sifting down every element that has children, from the last one to the root. 
+	 * Ties are broken by the position of the elements in the array.
+	 * 
+	 * @param initialElements elements to store in the heap, which is not modified
+	 * @throws IllegalArgumentException if any of the elements is null
+	 */
+	public BinaryHeap(E[] initialElements) {
+		this(Math.max(initialElements.length, 1));
+		for (int i = 0; i < initialElements.length; i++) {
+			if (initialElements[i] == null)
+				throw new IllegalArgumentException();
+			elements[i] = initialElements[i];
+			order[i] = i;
+		}
+		currentSize = initialElements.length;
+		insertions = currentSize;
+
+		for (int i = currentSize / 2 - 1; i >= 0; i--)
+			siftDown(i);
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException();
+		if (currentSize == elements.length)
+			reAllocate();
+
+		// Place the element at the end and move it up until its parent is smaller
+		elements[currentSize] = e;
+		order[currentSize] = insertions++;
+		siftUp(currentSize++);
+	}
+
+	@Override
+	public E poll() {
+		if (isEmpty())
+			return null;
+
+		// Take the root, move the last element to its place and move it down
+		E result = elements[0];
+		currentSize--;
+		elements[0] = elements[currentSize];
+		order[0] = order[currentSize];
+		elements[currentSize] = null;
+		if (currentSize > 0)
+			siftDown(0);
+		return result;
+	}
+
+	@Override
+	public E peek() {
+		return isEmpty() ? null : elements[0];
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < currentSize; i++)
+			elements[i] = null;
+		currentSize = 0;
+	}
+
+	private void siftUp(int index) {
+		E e = elements[index];
+		long o = order[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (!less(e, o, parent))
+				break;
+			elements[index] = elements[parent];
+			order[index] = order[parent];
+			index = parent;
+		}
+		elements[index] = e;
+		order[index] = o;
+	}
+
+	private void siftDown(int index) {
+		E e = elements[index];
+		long o = order[index];
+		int half = currentSize / 2; // Elements from here on are leaves
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < currentSize && less(elements[child + 1], order[child + 1], child))
+				child++;
+			if (!less(elements[child], order[child], e, o))
+				break;
+			elements[index] = elements[child];
+			order[index] = order[child];
+			index = child;
+		}
+		elements[index] = e;
+		order[index] = o;
+	}
+
+	/* Determines if element e inserted at o goes before the element at the given index */
+	private boolean less(E e, long o, int index) {
+		return less(e, o, elements[index], order[index]);
+	}
+
+	private boolean less(E a, long orderA, E b, long orderB) {
+		int comparison = a.compareTo(b);
+		return comparison < 0 || (comparison == 0 && orderA < orderB);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void reAllocate() {
+		/* create new arrays with twice the size */
+		E[] newElements = (E[]) new Comparable[2 * elements.length];
+		long[] newOrder = new long[newElements.length];
+		System.arraycopy(elements, 0, newElements, 0, currentSize);
+		System.arraycopy(order, 0, newOrder, 0, currentSize);
+		elements = newElements;
+		order = newOrder;
+	}
+}
@@ -7,9 +7,17 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.text.DecimalFormat;
 
-import p2.DataStructures.List.List;
-import p2.DataStructures.Map.HashTableSC;
+import p2.Codec.CanonicalCode;
+import p2.Codec.FrequencyCounter;
+import p2.Codec.PackedBits;
+import p2.Codec.TableDecoder;
+import p2.Codec.TableEncoder;
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+import p2.DataStructures.FrequencyTable.SparseFrequencyTable;
+import p2.DataStructures.Map.HashTableOA;
 import p2.DataStructures.Map.Map;
+import p2.DataStructures.PriorityQueue.BinaryHeap;
+import p2.DataStructures.PriorityQueue.PriorityQueue;
 import p2.DataStructures.SortedList.SortedLinkedList;
 import p2.DataStructures.SortedList.SortedList;
 import p2.DataStructures.Tree.BTNode;
@@ -31,6 +39,9 @@ import p2.Utils.BinaryTreePrinter;
  */
 public class HuffmanCoding {
 
+	/* Inputs at least this long are counted in parallel by compute_fd */
+	private static final int PARALLEL_FD_THRESHOLD = 1 << 20;
+
 	/** 
 	 * The main method of the program, which calls the HuffmanEncodedResult method to perform Huffman encoding and decoding.
 	 * 
@@ -50,8 +61,12 @@ public class HuffmanCoding {
 		if(!data.isEmpty()) {
 			Map<String, Integer> fD = compute_fd(data);	
 			BTNode<Integer,String> huffmanRoot = huffman_tree(fD);
+			
+			/* Use this method to see full Huffman Tree built with the generated root node */
+			BinaryTreePrinter.print(huffmanRoot);
+			
 			Map<String,String> encodedHuffman = huffman_code(huffmanRoot);
-			String output = encode(encodedHuffman, data);
+			PackedBits output = encode_packed(encodedHuffman, data);
 			process_results(fD, encodedHuffman,data,output);
 		} else 
 			System.out.println("Input Data Is Empty! Try Again with a File that has data inside!");
@@ -109,24 +124,50 @@ public class HuffmanCoding {
 	public static Map<String, Integer> compute_fd(String inputString) {
 		/* TODO Compute Symbol Frequency Distribution of each character inside input string */
 		
-		// Initialize the symbol frequency distribution map
-		Map<String, Integer> symbolFD = new HashTableSC<String, Integer>();
+		// Count with primitive symbols and counts, and only build the map once at the end
+		return compute_frequencies(inputString).toMap();
+	}
+
+	/**
+	 * Adds the frequency of each character in the input string to a given map,
+	 * for callers that keep counting into the same map across several strings.
+	 *
+	 * Each character takes a single lookup in the map, since merge finds it
+	 * and stores the new count at once instead of calling containsKey, get and put.
+	 *
+	 * @param inputString the string to analyze for symbol frequency distribution
+	 * @param symbolFD the map to add the frequency of each character to
+	 * @return The given map
+	 */
+	public static Map<String, Integer> compute_fd(String inputString, Map<String, Integer> symbolFD) {
+		for(int i = 0; i < inputString.length(); i++)
+			symbolFD.merge(inputString.substring(i, i + 1), 1, Integer::sum);
+		return symbolFD;
+	}
+
+	/**
+	 * Computes the symbol frequency distribution of each character in the input string 
+	 * into a FrequencyTable, where each symbol is the char itself. 
+	 * 
+	 * Unlike a Map of Strings to Integers, counting a character this way 
+	 * doesn't allocate a substring or box the count.
+	 * 
+	 * @param inputString the string to analyze for symbol frequency distribution
+	 * @return A table with the frequency of each character in the input string
+	 */
+	public static FrequencyTable compute_frequencies(String inputString) {
+		
+		// Big inputs are counted in parallel into a table with a slot for every possible char
+		if(inputString.length() >= PARALLEL_FD_THRESHOLD)
+			return new FrequencyCounter().countChars(inputString);
 		
-		// Iterate through each character in the input string
-		for(int i = 0; i < inputString.length(); i++) {
-			
-			// If the character is already in the symbol frequency distribution map, increase its frequency by 1
-			if(symbolFD.containsKey(inputString.substring(i,i+1)))
-				symbolFD.put(inputString.substring(i,i+1), symbolFD.get(inputString.substring(i,i+1))+1);
-			
-			// Otherwise, add the character to the map with a frequency of 1
-			else
-				symbolFD.put(inputString.substring(i,i+1), 1);
-				
-		}
+		// Small inputs only have a handful of distinct characters, so a sparse table is enough
+		FrequencyTable symbolFD = new SparseFrequencyTable();
+		for(int i = 0; i < inputString.length(); i++)
+			symbolFD.increment(inputString.charAt(i));
 		
-		// Return the symbol frequency distribution map
-		return symbolFD; 
+		// Return the symbol frequency distribution table
+		return symbolFD;
 	}
 
 	/**
@@ -145,22 +186,25 @@ public class HuffmanCoding {
 		// Initialize the root node of the tree
 		BTNode<Integer, String> rootNode = null;
 		
-		// Create a sorted linked list of nodes from the map
-		SortedList<BTNode<Integer, String>> sL = new SortedLinkedList<BTNode<Integer,String>>(); 
+		// Create a min-heap of nodes from the map, built all at once from the array of leaves
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		BTNode<Integer, String>[] leaves = new BTNode[fD.size()];
+		int leafCount = 0;
 		for(String key: fD.getKeys()) {
-			sL.add(new BTNode<Integer, String>(fD.get(key),key));
+			leaves[leafCount++] = new BTNode<Integer, String>(fD.get(key),key);
 		}
+		PriorityQueue<BTNode<Integer, String>> pQ = new BinaryHeap<BTNode<Integer,String>>(leaves);
 		
-		// If the sorted list has size one, return its only node
-		if(sL.size() == 1)
-			return sL.get(0);
+		// If the heap has size one, return its only node
+		if(pQ.size() == 1)
+			return pQ.poll();
 		
 		// Construct the Huffman tree by repeatedly combining the two lowest frequency nodes
-		while(sL.size() > 1) {
+		while(pQ.size() > 1) {
 			
 			// Remove the two nodes with the lowest frequency
-			BTNode<Integer, String> leftChild = sL.removeIndex(0);
-			BTNode<Integer, String> rightChild = sL.removeIndex(0);
+			BTNode<Integer, String> leftChild = pQ.poll();
+			BTNode<Integer, String> rightChild = pQ.poll();
 			
 			 // Combine the two nodes to create a new parent node
 			rootNode = new BTNode<Integer, String>(leftChild.getKey() + rightChild.getKey(), leftChild.getValue() + rightChild.getValue());
@@ -182,12 +226,9 @@ public class HuffmanCoding {
 			leftChild.setParent(rootNode);
 			rightChild.setParent(rootNode);
 			
-			// Add the parent node back to the sorted list
-			sL.add(rootNode);
+			// Add the parent node back to the heap
+			pQ.add(rootNode);
 		}
-		 
-		/* Use this method to see full Huffman Tree built with the generated root node */
-		 BinaryTreePrinter.print(rootNode); 
 		
 		// Return the root node of the Huffman tree
 		return rootNode;
@@ -206,13 +247,26 @@ public class HuffmanCoding {
 		
 		// If the root is a leaf, return a map with only one element with the value "0"
 		if(huffmanRoot.getLeftChild() == null && huffmanRoot.getRightChild() == null) {
-			HashTableSC<String, String> prefixCodes = new HashTableSC<String, String>();
+			HashTableOA<String, String> prefixCodes = new HashTableOA<String, String>();
 			prefixCodes.put(huffmanRoot.getValue(), "0");
 			return prefixCodes;
 		}
 		
 		// Call the auxiliary recursive method to generate a map with the codification of all nodes in the given tree
-		return recHuffmanCode(huffmanRoot, new HashTableSC<String, String>(), "");
+		return recHuffmanCode(huffmanRoot, new HashTableOA<String, String>(), "");
+	}
+
+	/**
+	 * Constructs the canonical version of the codes in the tree rooted at the given node. 
+	 * Each symbol keeps the length of its code in the tree, but the codes themselves 
+	 * are reassigned in canonical order (by length, then by symbol), so the whole 
+	 * code table can be stored as just one length per symbol (see CanonicalCode.toHeader).
+	 * 
+	 * @param huffmanRoot the root node of the tree, where every leaf holds a single character
+	 * @return The canonical code for the symbols of the tree
+	 */
+	public static CanonicalCode canonical_code(BTNode<Integer,String> huffmanRoot) {
+		return CanonicalCode.fromTree(huffmanRoot);
 	}
 
 	/**
@@ -226,18 +280,25 @@ public class HuffmanCoding {
 	public static String encode(Map<String, String> encodingMap, String inputString) {
 		/* TODO Encode String */
 		
-		// Initialize the encoded string
-		String res = "";
-		
-		// Iterate through each character in the input string
-		for(int i = 0; i < inputString.length(); i++) {
-			
-			// Retrieve the codification of the current character from the encoding map and append it to the encoded string.
-			res += encodingMap.get(inputString.substring(i, i+1));
-		}
-		
-		// Return encoded input string
-		return res;
+		// Pack the codes of every character and spell the packed bits out, one character per bit.
+		// Appending each code to a String instead would copy the whole result once per character.
+		return encode_packed(encodingMap, inputString).toBitString();
+	}
+
+	/**
+	 * Encodes a given input string using the provided encoding map, like encode does,
+	 * but the codes are packed into real bits (8 per byte) instead of one character per bit.
+	 * 
+	 * The map is turned into flat code and length tables first (see TableEncoder), so
+	 * encoding each character takes no substring, hashing or per bit work.
+	 * 
+	 * @param encodingMap a map containing the encoded version of each character in the input string
+	 * @param inputString the string to encode 
+	 * @return The packed encoded input string, along with its exact length in bits
+	 * @throws IllegalArgumentException if a character of the input string has no code in the encoding map
+	 */
+	public static PackedBits encode_packed(Map<String, String> encodingMap, String inputString) {
+		return new TableEncoder(encodingMap).encode(inputString);
 	}
 
 	/**
@@ -253,21 +314,29 @@ public class HuffmanCoding {
 	 * @param output processed encoded string
 	 */
 	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData, String output) {
+		process_results(fD, encodedHuffman, inputData, PackedBits.fromBitString(output));
+	}
+
+	/**
+	 * Same as process_results above, but receives the output already packed into bits,
+	 * as returned by encode_packed.
+	 * 
+	 * @param fD Frequency Distribution of all the characters in input string
+	 * @param encodedHuffman Prefix Code Map
+	 * @param inputData text string from the input file
+	 * @param output processed encoded bits
+	 */
+	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData, PackedBits output) {
 		/*To get the bytes of the input string, we just get the bytes of the original string with string.getBytes().length*/
 		int inputBytes = inputData.getBytes().length;
 
 		/**
-		 * For the bytes of the encoded one, it's not so easy.
-		 * 
-		 * Here we have to get the bytes the same way we got the bytes 
-		 * for the original one but we divide it by 8, because 
-		 * 1 byte = 8 bits and our huffman code is in bits (0,1), not bytes. 
-		 * 
-		 * This is because we want to calculate how many bytes we saved by 
-		 * counting how many bits we generated with the encoding 
+		 * For the bytes of the encoded one, the output is already packed 
+		 * 8 bits per byte, so we just take how many bytes the packed bits 
+		 * take (the last byte may be only partially used).
 		 */
 		DecimalFormat d = new DecimalFormat("##.##");
-		double outputBytes = Math.ceil((float) output.getBytes().length / 8);
+		double outputBytes = output.getByteLength();
 
 		/**
 		 * to calculate how much space we saved we just take the percentage.
@@ -322,8 +391,8 @@ public class HuffmanCoding {
 		}
 
 		System.out.println("\nOriginal String: \n" + inputData);
-		System.out.println("Encoded String: \n" + output);
-		System.out.println("Decoded String: \n" + decodeHuff(output, encodedHuffman) + "\n");
+		System.out.println("Encoded String: \n" + output.toBitString());
+		System.out.println("Decoded String: \n" + decode_packed(output, encodedHuffman) + "\n");
 		System.out.println("The original string requires " + inputBytes + " bytes.");
 		System.out.println("The encoded string requires " + (int) outputBytes + " bytes.");
 		System.out.println("Difference in space requiered is " + savings + "%.");
@@ -376,26 +445,21 @@ public class HuffmanCoding {
 	 * @return The decoded String, this should be the original input string parsed from the input file
 	 */
 	public static String decodeHuff(String output, Map<String, String> lookupTable) {
-		String result = "";
-		int start = 0;
-		List<String>  prefixCodes = lookupTable.getValues();
-		List<String> symbols = lookupTable.getKeys();
-
-		/**
-		 * Loop through output until a prefix code is found on map and 
-		 * adding the symbol that the code that represents it to result 
-		 */
-		for(int i = 0; i <= output.length();i++){
-
-			String searched = output.substring(start, i);
-
-			int index = prefixCodes.firstIndex(searched);
+		return decode_packed(PackedBits.fromBitString(output), lookupTable);
+	}
 
-			if(index >= 0) { // Found it!
-				result= result + symbols.get(index);
-				start = i;
-			}
-		}
-		return result;    
+	/**
+	 * Decodes packed bits generated by encode_packed back into the original string.
+	 * 
+	 * Rather than searching the prefix codes for every possible substring of the output, 
+	 * the lookup table is turned into a TableDecoder, which resolves each symbol 
+	 * with one (or two, for long codes) array reads indexed by the next bits of the output.
+	 * 
+	 * @param output Encoded bits
+	 * @param lookupTable a map containing the prefix codes and their corresponding symbols.
+	 * @return The decoded String
+	 */
+	public static String decode_packed(PackedBits output, Map<String, String> lookupTable) {
+		return new TableDecoder(lookupTable).decode(output);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,446 @@
+package p2.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Corpus Generator
+ *
+ * Generates synthetic inputs for testing and benchmarking the codecs, from a
+ * seed so the same seed always gives the same bytes. The output is produced a
+ * buffer at a time, so files of any size (tens of GB) can be written without
+ * ever holding them in memory. The kinds of input are:
+ *
+ *   uniform        every symbol equally likely, the case Huffman coding can't compress
+ *   zipf           the i-th symbol is 1/i^exponent times as likely as the first one
+ *   fibonacci      the i-th symbol shows up as many times as the i-th Fibonacci number,
+ *                  which gives the deepest possible Huffman tree (a code as long as the alphabet)
+ *   natural        English-like text: words from a Zipf distributed vocabulary, spelled
+ *                  with the frequencies of English letters, in sentences with punctuation
+ *   binary         random bytes, every one of the 256 values equally likely
+ *
+ * Alphabets of up to 94 symbols use the printable ASCII chars starting at '!', so the
+ * output is also valid text for HuffmanCoding. Bigger ones use the byte values 0 to 255
+ * and are meant for the byte codecs (ByteHuffmanCodec, BlockCompressor).
+ *
+ * The fibonacci input comes in rounds holding exactly F(1), F(2), ..., F(alphabet) copies
+ * of each symbol (in random order), so the tree is as deep as it can be as long as the
+ * output holds a whole round: F(alphabet + 2) - 1 bytes.
+ *
+ * @author Fabian Ruiz - fabianruiz3
+ */
+public class CorpusGenerator {
+
+	private static final int UNIFORM = 0;
+	private static final int WEIGHTED = 1;
+	private static final int FIBONACCI = 2;
+	private static final int NATURAL = 3;
+	private static final int BINARY = 4;
+
+	public static final int MAX_TEXT_ALPHABET = 94;
+	public static final int MAX_FIBONACCI_ALPHABET = 88;	// F(90) still fits in a long
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/* English letter frequencies, in hundredths of a percent */
+	private static final int[] LETTER_FREQUENCIES = { 817, 149, 278, 425, 1270, 223, 202, 609, 697, 15, 77, 403, 241,
+			675, 751, 193, 10, 599, 633, 906, 276, 98, 236, 15, 197, 7 };
+	/* How common each word length is, from 1 letter on, in percent */
+	private static final int[] WORD_LENGTHS = { 3, 17, 20, 16, 11, 9, 8, 6, 4, 3, 2, 1 };
+	private static final int VOCABULARY_SIZE = 4096;
+
+	private final int kind;
+	private final int alphabet;
+	private final SplittableRandom random;
+
+	/* Sampler of the symbols (of the words, for natural text) for the weighted kinds */
+	private AliasTable table;
+
+	/* Fibonacci rounds: how many copies of each symbol are left in the current round */
+	private long[] remaining;
+	private long remainingTotal;
+
+	/* Natural text: the vocabulary, and what's left of the word being written */
+	private byte[][] words;
+	private byte[] pending = new byte[0];
+	private int pendingPosition;
+	private boolean capitalize = true;
+
+	/* Random binary: bits of the last random long not used yet */
+	private long bits;
+	private int bitsLeft;
+
+	private CorpusGenerator(int kind, int alphabet, long seed) {
+		this.kind = kind;
+		this.alphabet = alphabet;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * @param alphabet number of symbols, between 1 and 256
+	 * @param seed seed of the random numbers
+	 * @return A generator of symbols that are all equally likely
+	 */
+	public static CorpusGenerator uniform(int alphabet, long seed) {
+		checkAlphabet(alphabet, 256);
+		return new CorpusGenerator(UNIFORM, alphabet, seed);
+	}
+
+	/**
+	 * @param alphabet number of symbols, between 1 and 256
+	 * @param exponent how fast the likelihood drops, 1 being the usual Zipf's law (0 is uniform)
+	 * @param seed seed of the random numbers
+	 * @return A generator where the i-th symbol is 1/i^exponent times as likely as the first one
+	 */
+	public static CorpusGenerator zipf(int alphabet, double exponent, long seed) {
+		checkAlphabet(alphabet, 256);
+		if (!(exponent >= 0))
+			throw new IllegalArgumentException("Exponent can't be negative");
+
+		CorpusGenerator generator = new CorpusGenerator(WEIGHTED, alphabet, seed);
+		double[] weights = new double[alphabet];
+		for (int i = 0; i < alphabet; i++)
+			weights[i] = Math.pow(i + 1, -exponent);
+		generator.table = new AliasTable(weights);
+		return generator;
+	}
+
+	/**
+	 * @param alphabet number of symbols, between 1 and MAX_FIBONACCI_ALPHABET
+	 * @param seed seed of the random numbers
+	 * @return A generator where symbol frequencies follow the Fibonacci sequence
+	 */
+	public static CorpusGenerator fibonacci(int alphabet, long seed) {
+		checkAlphabet(alphabet, MAX_FIBONACCI_ALPHABET);
+		CorpusGenerator generator = new CorpusGenerator(FIBONACCI, alphabet, seed);
+		generator.remaining = new long[alphabet];
+		return generator;
+	}
+
+	/**
+	 * @param seed seed of the random numbers, which also picks the vocabulary
+	 * @return A generator of English-like text
+	 */
+	public static CorpusGenerator naturalLanguage(long seed) {
+		CorpusGenerator generator = new CorpusGenerator(NATURAL, 0, seed);
+
+		/* Spell the vocabulary, then make the first words the most common ones */
+		AliasTable letters = new AliasTable(toDoubles(LETTER_FREQUENCIES));
+		AliasTable lengths = new AliasTable(toDoubles(WORD_LENGTHS));
+		generator.words = new byte[VOCABULARY_SIZE][];
+		for (int i = 0; i < VOCABULARY_SIZE; i++) {
+			byte[] word = new byte[lengths.sample(generator.random) + 1];
+			for (int j = 0; j < word.length; j++)
+				word[j] = (byte) ('a' + letters.sample(generator.random));
+			generator.words[i] = word;
+		}
+		double[] weights = new double[VOCABULARY_SIZE];
+		for (int i = 0; i < VOCABULARY_SIZE; i++)
+			weights[i] = 1.0 / (i + 1);
+		generator.table = new AliasTable(weights);
+		return generator;
+	}
+
+	/**
+	 * @param seed seed of the random numbers
+	 * @return A generator of random bytes
+	 */
+	public static CorpusGenerator randomBinary(long seed) {
+		return new CorpusGenerator(BINARY, 256, seed);
+	}
+
+	/**
+	 * Returns a generator by name, for command lines and benchmark parameters.
+	 *
+	 * @param distribution uniform, zipf (with exponent 1), fibonacci, natural or binary
+	 * @param alphabet number of symbols (ignored by natural and binary)
+	 * @param seed seed of the random numbers
+	 * @return The generator
+	 */
+	public static CorpusGenerator of(String distribution, int alphabet, long seed) {
+		switch (distribution) {
+		case "uniform":
+			return uniform(alphabet, seed);
+		case "zipf":
+			return zipf(alphabet, 1, seed);
+		case "fibonacci":
+			return fibonacci(alphabet, seed);
+		case "natural":
+			return naturalLanguage(seed);
+		case "binary":
+			return randomBinary(seed);
+		default:
+			throw new IllegalArgumentException("Unknown distribution: " + distribution);
+		}
+	}
+
+	/**
+	 * Generates the next bytes of the input. The bytes only depend on the seed and
+	 * on how many were generated before, not on how they are split into calls.
+	 *
+	 * @param buffer array to fill
+	 * @param offset first position to fill
+	 * @param length number of bytes to generate
+	 */
+	public void fill(byte[] buffer, int offset, int length) {
+		int end = offset + length;
+		switch (kind) {
+		case UNIFORM:
+			for (int i = offset; i < end; i++)
+				buffer[i] = symbol(random.nextInt(alphabet));
+			break;
+		case WEIGHTED:
+			for (int i = offset; i < end; i++)
+				buffer[i] = symbol(table.sample(random));
+			break;
+		case FIBONACCI:
+			for (int i = offset; i < end; i++)
+				buffer[i] = symbol(nextFibonacci());
+			break;
+		case NATURAL:
+			for (int i = offset; i < end; i++) {
+				if (pendingPosition == pending.length)
+					nextWord();
+				buffer[i] = pending[pendingPosition++];
+			}
+			break;
+		default:
+			for (int i = offset; i < end; i++) {
+				if (bitsLeft == 0) {
+					bits = random.nextLong();
+					bitsLeft = 64;
+				}
+				buffer[i] = (byte) bits;
+				bits >>>= 8;
+				bitsLeft -= 8;
+			}
+		}
+	}
+
+	/**
+	 * @param size number of bytes
+	 * @return The next size bytes of the input
+	 */
+	public byte[] generate(int size) {
+		byte[] result = new byte[size];
+		fill(result, 0, size);
+		return result;
+	}
+
+	/**
+	 * @param length number of chars
+	 * @return The next length bytes of the input, each one as a char
+	 */
+	public String generateText(int length) {
+		return new String(generate(length), StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Writes the next bytes of the input to a stream, a buffer at a time.
+	 *
+	 * @param size number of bytes to write
+	 * @param out stream to write them to
+	 * @return The number of bytes written
+	 * @throws IOException if the stream can't be written
+	 */
+	public long write(long size, OutputStream out) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		for (long written = 0; written < size; ) {
+			int length = (int) Math.min(buffer.length, size - written);
+			fill(buffer, 0, length);
+			out.write(buffer, 0, length);
+			written += length;
+		}
+		return size;
+	}
+
+	/**
+	 * Writes the next bytes of the input to a file, replacing it if it exists.
+	 *
+	 * @param size number of bytes to write
+	 * @param file file to write
+	 * @return The number of bytes written
+	 * @throws IOException if the file can't be written
+	 */
+	public long write(long size, Path file) throws IOException {
+		try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			for (long written = 0; written < size; ) {
+				int length = (int) Math.min(buffer.length, size - written);
+				fill(buffer, 0, length);
+				ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, length);
+				while (chunk.hasRemaining())
+					out.write(chunk);
+				written += length;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Writes a generated input to a file.
+	 *
+	 * Usage: CorpusGenerator distribution size seed output [alphabet]
+	 * where size can have a KB, MB or GB suffix, e.g. CorpusGenerator zipf 10GB 1 big.txt 64
+	 *
+	 * @param args command line arguments
+	 * @throws IOException if the file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4 || args.length > 5) {
+			System.out.println("Usage: CorpusGenerator (uniform|zipf|fibonacci|natural|binary) size seed output [alphabet]");
+			return;
+		}
+		int alphabet = args.length == 5 ? Integer.parseInt(args[4]) : 64;
+		CorpusGenerator generator = of(args[0], alphabet, Long.parseLong(args[2]));
+		long size = generator.write(parseSize(args[1]), Paths.get(args[3]));
+		System.out.println("Wrote " + size + " bytes to " + args[3]);
+	}
+
+	/**
+	 * Parses a size like 512, 1KB, 16MB or 10GB (in powers of 1024).
+	 *
+	 * @param size number, optionally followed by KB, MB or GB
+	 * @return The size in bytes
+	 */
+	public static long parseSize(String size) {
+		String unit = size.replaceAll("[0-9]", "").toUpperCase();
+		int shift;
+		switch (unit) {
+		case "":
+			shift = 0;
+			break;
+		case "KB":
+			shift = 10;
+			break;
+		case "MB":
+			shift = 20;
+			break;
+		case "GB":
+			shift = 30;
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid size: " + size);
+		}
+		return Long.parseLong(size.substring(0, size.length() - unit.length())) << shift;
+	}
+
+	/* Next symbol of the current round, starting a new round when it runs out */
+	private int nextFibonacci() {
+		if (remainingTotal == 0) {
+			long previous = 0, current = 1;
+			for (int i = 0; i < alphabet; i++) {
+				remaining[i] = current;
+				remainingTotal += current;
+				current += previous;
+				previous = remaining[i];
+			}
+		}
+
+		/* Pick one of the copies left at random, scanning from the most common symbol */
+		long r = random.nextLong(remainingTotal);
+		int symbol = alphabet - 1;
+		while (r >= remaining[symbol]) {
+			r -= remaining[symbol];
+			symbol--;
+		}
+		remaining[symbol]--;
+		remainingTotal--;
+		return symbol;
+	}
+
+	/* Picks the next word of the text along with the punctuation and space after it */
+	private void nextWord() {
+		byte[] word = words[table.sample(random)];
+		int end = random.nextInt(12) == 0 ? (random.nextInt(8) == 0 ? 2 : 1) : (random.nextInt(15) == 0 ? 3 : 0);
+
+		/* end is 0 for a space, 1 for the end of a sentence, 2 for the end of a paragraph, 3 for a comma */
+		pending = new byte[word.length + (end == 0 ? 1 : 2)];
+		System.arraycopy(word, 0, pending, 0, word.length);
+		if (capitalize)
+			pending[0] -= 'a' - 'A';
+		pending[word.length] = (byte) (end == 0 ? ' ' : end == 3 ? ',' : '.');
+		if (end != 0)
+			pending[word.length + 1] = (byte) (end == 2 ? '\n' : ' ');
+		capitalize = end == 1 || end == 2;
+		pendingPosition = 0;
+	}
+
+	/* The byte of a symbol: printable ASCII for small alphabets, the symbol itself for the rest */
+	private byte symbol(int index) {
+		return (byte) (alphabet <= MAX_TEXT_ALPHABET ? '!' + index : index);
+	}
+
+	private static void checkAlphabet(int alphabet, int max) {
+		if (alphabet < 1 || alphabet > max)
+			throw new IllegalArgumentException("Alphabet size must be between 1 and " + max);
+	}
+
+	private static double[] toDoubles(int[] values) {
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++)
+			result[i] = values[i];
+		return result;
+	}
+
+	/**
+	 * Walker's alias method: picks an index with probability proportional to its weight
+	 * in constant time, with one random index and one random coin flip, instead of
+	 * searching the cumulative weights.
+	 */
+	private static class AliasTable {
+		private final double[] probability;
+		private final int[] alias;
+
+		public AliasTable(double[] weights) {
+			int n = weights.length;
+			probability = new double[n];
+			alias = new int[n];
+
+			/* Scale the weights so they average 1, and split them into the ones under and over 1 */
+			double total = 0;
+			for (double weight : weights)
+				total += weight;
+			double[] scaled = new double[n];
+			int[] small = new int[n], large = new int[n];
+			int smallCount = 0, largeCount = 0;
+			for (int i = 0; i < n; i++) {
+				scaled[i] = weights[i] * n / total;
+				if (scaled[i] < 1)
+					small[smallCount++] = i;
+				else
+					large[largeCount++] = i;
+			}
+
+			/* Fill each small column up to 1 with part of a large one */
+			while (smallCount > 0 && largeCount > 0) {
+				int less = small[--smallCount], more = large[--largeCount];
+				probability[less] = scaled[less];
+				alias[less] = more;
+				scaled[more] -= 1 - scaled[less];
+				if (scaled[more] < 1)
+					small[smallCount++] = more;
+				else
+					large[largeCount++] = more;
+			}
+
+			/* What's left is 1 up to rounding errors */
+			while (largeCount > 0)
+				probability[large[--largeCount]] = 1;
+			while (smallCount > 0)
+				probability[small[--smallCount]] = 1;
+		}
+
+		public int sample(SplittableRandom random) {
+			int column = random.nextInt(probability.length);
+			return random.nextDouble() < probability[column] ? column : alias[column];
+		}
+	}
+}
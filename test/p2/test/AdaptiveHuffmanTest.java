@@ -0,0 +1,68 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.Codec.AdaptiveHuffmanInputStream;
+import p2.Codec.AdaptiveHuffmanOutputStream;
+
+public class AdaptiveHuffmanTest {
+
+	private byte[] roundTrip(byte[] data) throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (AdaptiveHuffmanOutputStream out = new AdaptiveHuffmanOutputStream(compressed)) {
+			out.write(data);
+		}
+		try (AdaptiveHuffmanInputStream in = new AdaptiveHuffmanInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+			return in.readAllBytes();
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		/* Skewed data whose statistics change halfway, plus every byte value */
+		Random random = new Random(11);
+		byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) (i < 256 ? i : (i < 50000 ? random.nextInt(8) : 100 + random.nextInt(40)));
+
+		boolean check = Arrays.equals(roundTrip(data), data);
+		check &= roundTrip(new byte[0]).length == 0;
+		check &= Arrays.equals(roundTrip(new byte[] {1, 1, 1, 1}), new byte[] {1, 1, 1, 1});
+
+		assertTrue("Failed to round trip adaptive codes", check);
+	}
+
+	@Test
+	public void testFlushEmitsWholeBytes() throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		AdaptiveHuffmanOutputStream out = new AdaptiveHuffmanOutputStream(compressed);
+		out.write("hello".getBytes());
+		out.flush();
+
+		/* 5 new symbols are at least 45 bits, so something is out before the stream ends */
+		boolean check = compressed.size() >= 5;
+		out.close();
+
+		assertTrue("Flush did not write the encoded bytes", check && compressed.size() > 5);
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncated() throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (AdaptiveHuffmanOutputStream out = new AdaptiveHuffmanOutputStream(compressed)) {
+			out.write("some text that gets cut".getBytes());
+		}
+		byte[] truncated = Arrays.copyOf(compressed.toByteArray(), compressed.size() / 2);
+		try (AdaptiveHuffmanInputStream in = new AdaptiveHuffmanInputStream(new ByteArrayInputStream(truncated))) {
+			in.readAllBytes();
+		}
+	}
+}
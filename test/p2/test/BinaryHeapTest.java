@@ -0,0 +1,49 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import p2.DataStructures.PriorityQueue.BinaryHeap;
+import p2.DataStructures.PriorityQueue.PriorityQueue;
+import p2.DataStructures.Tree.BTNode;
+
+public class BinaryHeapTest {
+
+	@Test
+	public void testPollOrder() {
+		PriorityQueue<Integer> heap = new BinaryHeap<Integer>(1);
+		for (int i = 0; i < 1000; i++)
+			heap.add((i * 7919) % 1000);
+
+		boolean check = heap.size() == 1000;
+		for (int i = 0; i < 1000; i++)
+			check &= heap.poll() == i;
+
+		assertTrue("Heap did not return elements in ascending order", check && heap.isEmpty() && heap.poll() == null);
+	}
+
+	@Test
+	public void testHeapify() {
+		Integer[] elements = {9, 4, 7, 1, 8, 2, 6, 3, 5, 0};
+		PriorityQueue<Integer> heap = new BinaryHeap<Integer>(elements);
+
+		boolean check = heap.peek() == 0;
+		for (int i = 0; i < elements.length; i++)
+			check &= heap.poll() == i;
+
+		assertTrue("Failed to build heap from array", check);
+	}
+
+	@Test
+	public void testTiesKeepInsertionOrder() {
+		PriorityQueue<BTNode<Integer, String>> heap = new BinaryHeap<BTNode<Integer, String>>();
+		BTNode<Integer, String> first = new BTNode<Integer, String>(1, "A");
+		BTNode<Integer, String> second = new BTNode<Integer, String>(1, "A");
+		heap.add(new BTNode<Integer, String>(2, "B"));
+		heap.add(first);
+		heap.add(second);
+
+		assertTrue("Equal elements did not come out in insertion order", heap.poll() == first && heap.poll() == second);
+	}
+}
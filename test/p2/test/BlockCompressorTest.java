@@ -0,0 +1,146 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import p2.Codec.BlockCompressor;
+import p2.Codec.SeekableBlockReader;
+
+public class BlockCompressorTest {
+
+	ExecutorService executor;
+	Path input, compressed, output;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+		input = Files.createTempFile("blocks", ".bin");
+		compressed = Files.createTempFile("blocks", ".huf");
+		output = Files.createTempFile("blocks", ".out");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdown();
+		Files.deleteIfExists(input);
+		Files.deleteIfExists(compressed);
+		Files.deleteIfExists(output);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		/* Every 10000 bytes the data switches to a different range of values */
+		Random random = new Random(7);
+		byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) ((i / 10000) * 20 + random.nextInt(1 + i / 10000));
+		Files.write(input, data);
+
+		BlockCompressor compressor = new BlockCompressor(BlockCompressor.MIN_BLOCK_SIZE * 3, executor);
+		long blocks = compressor.compress(input, compressed);
+		long length = compressor.decompress(compressed, output);
+
+		boolean check = blocks == 33 && length == data.length && Arrays.equals(Files.readAllBytes(output), data);
+
+		assertTrue("Failed to round trip a block compressed file", check);
+	}
+
+	@Test
+	public void testRandomAccess() throws Exception {
+		byte[] data = new byte[50000];
+		new Random(3).nextBytes(data);
+		Files.write(input, data);
+		new BlockCompressor(BlockCompressor.MIN_BLOCK_SIZE, executor).compress(input, compressed);
+
+		try (SeekableBlockReader reader = new SeekableBlockReader(compressed)) {
+			boolean check = reader.size() == data.length && reader.blockCount() == 49;
+
+			/* Ranges inside a block, across several blocks and past the end */
+			check &= Arrays.equals(reader.read(100, 50), Arrays.copyOfRange(data, 100, 150));
+			check &= Arrays.equals(reader.read(1000, 3000), Arrays.copyOfRange(data, 1000, 4000));
+			check &= Arrays.equals(reader.read(49990, 100), Arrays.copyOfRange(data, 49990, 50000));
+			check &= reader.read(60000, 10).length == 0;
+
+			/* An offset and length whose sum overflows an int are out of bounds, even when nothing is left to read */
+			try {
+				reader.read(60000, new byte[10], 5, Integer.MAX_VALUE);
+				check = false;
+			} catch (IndexOutOfBoundsException e) {
+				// Expected
+			}
+
+			assertTrue("Failed to read ranges of a block compressed file", check);
+		}
+	}
+
+	@Test
+	public void testCorruptBlockLength() throws Exception {
+		byte[] data = new byte[5000];
+		new Random(5).nextBytes(data);
+		Files.write(input, data);
+		new BlockCompressor(BlockCompressor.MIN_BLOCK_SIZE, executor).compress(input, compressed);
+
+		/* The first frame starts right after the 8 byte header, its block size right after the frame size */
+		try (FileChannel channel = FileChannel.open(compressed, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).putInt(10).flip(), 12);
+		}
+
+		boolean check = false;
+		try (SeekableBlockReader reader = new SeekableBlockReader(compressed)) {
+			reader.read(100, 50);
+		} catch (IOException e) {
+			check = true;
+		}
+
+		assertTrue("A block shorter than its place in the file should be reported as corrupted", check);
+	}
+
+	@Test
+	public void testCorruptHeaderAndFooter() throws Exception {
+		byte[] data = new byte[5000];
+		new Random(6).nextBytes(data);
+		Files.write(input, data);
+		new BlockCompressor(BlockCompressor.MIN_BLOCK_SIZE, executor).compress(input, compressed);
+		byte[] original = Files.readAllBytes(compressed);
+
+		/* A block size of 0 right after the magic, then a block count too big for the file right before the footer magic */
+		boolean check = true;
+		for (int position : new int[] { 4, original.length - 8 }) {
+			byte[] corrupted = original.clone();
+			ByteBuffer.wrap(corrupted).putInt(position, position == 4 ? 0 : Integer.MAX_VALUE);
+			Files.write(compressed, corrupted);
+
+			try {
+				new SeekableBlockReader(compressed).close();
+				check = false;
+			} catch (IOException e) {
+				check &= e.getMessage().equals("Compressed file has no valid footer index");
+			}
+		}
+
+		assertTrue("A corrupt block size or block count should be reported as an IOException", check);
+	}
+
+	@Test
+	public void testEmptyFile() throws Exception {
+		BlockCompressor compressor = new BlockCompressor(BlockCompressor.MIN_BLOCK_SIZE, executor);
+
+		boolean check = compressor.compress(input, compressed) == 0 && compressor.decompress(compressed, output) == 0;
+
+		assertTrue("Failed to round trip an empty file", check && Files.size(output) == 0);
+	}
+}
@@ -0,0 +1,81 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import p2.Codec.ByteHuffmanCodec;
+
+public class ByteHuffmanCodecTest {
+
+	byte[] data;
+
+	@Before
+	public void setUp() throws Exception {
+		/* Every byte value, with a skewed distribution like most binary files */
+		Random random = new Random(42);
+		data = new byte[200000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) (random.nextInt(16) == 0 ? random.nextInt(256) : (int) Math.abs(random.nextGaussian() * 8));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		byte[] compressed = ByteHuffmanCodec.compress(data);
+
+		boolean check = compressed.length < data.length && Arrays.equals(ByteHuffmanCodec.decompress(compressed), data);
+		check &= Arrays.equals(ByteHuffmanCodec.decompress(ByteHuffmanCodec.compress(new byte[0])), new byte[0]);
+		check &= Arrays.equals(ByteHuffmanCodec.decompress(ByteHuffmanCodec.compress(new byte[] {7, 7, 7})), new byte[] {7, 7, 7});
+
+		assertTrue("Failed to round trip bytes", check);
+	}
+
+	@Test
+	public void testParallelDecode() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			/* Interval that doesn't divide the data, so the last segment is shorter */
+			byte[] compressed = ByteHuffmanCodec.compress(data, 3001);
+
+			boolean check = Arrays.equals(ByteHuffmanCodec.decompress(compressed, executor), data);
+			check &= Arrays.equals(ByteHuffmanCodec.decompress(compressed), data);
+
+			assertTrue("Failed to decode from restart points", check);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testFileRoundTrip() throws Exception {
+		Path input = Files.createTempFile("bytes", ".bin");
+		Path compressed = Files.createTempFile("bytes", ".huf");
+		Path output = Files.createTempFile("bytes", ".out");
+		try {
+			Files.write(input, data);
+			ByteHuffmanCodec.compress(input, compressed);
+			ByteHuffmanCodec.decompress(compressed, output);
+
+			assertTrue("Failed to round trip a file", Arrays.equals(Files.readAllBytes(output), data));
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(compressed);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLengths() {
+		int[] lengths = new int[256];
+		lengths[0] = lengths[1] = lengths[2] = 1;
+		new ByteHuffmanCodec(lengths);
+	}
+}
@@ -0,0 +1,102 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.BitReader;
+import p2.Codec.BitWriter;
+import p2.Codec.CanonicalCode;
+import p2.Codec.PackedBits;
+import p2.DataStructures.Map.Map;
+import p2.DataStructures.Tree.BTNode;
+
+public class CanonicalCodeTest {
+
+	String input;
+	Map<String,String> encodedHuffman;
+	CanonicalCode canonical;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTTFRRDDESWAWVHNJKMLKKJGDRDFJVVCCCCCCCCCCCCCPPPPOOOIIT";
+
+		BTNode<Integer,String> huffmanRoot = HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(input));
+		encodedHuffman = HuffmanCoding.huffman_code(huffmanRoot);
+		canonical = HuffmanCoding.canonical_code(huffmanRoot);
+	}
+
+	@Test
+	public void testSameLengthsAsTree() {
+		boolean check = canonical.symbols().length == encodedHuffman.size();
+		for (String key : encodedHuffman.getKeys())
+			check &= canonical.length(key.charAt(0)) == encodedHuffman.get(key).length();
+
+		assertTrue("Canonical code lengths differ from the tree", check);
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Map<String,String> canonicalMap = canonical.toMap();
+		PackedBits packed = HuffmanCoding.encode_packed(canonicalMap, input);
+
+		/* Same lengths, so the encoded size is the same as with the tree codes */
+		boolean check = packed.getBitLength() == HuffmanCoding.encode(encodedHuffman, input).length()
+				&& HuffmanCoding.decode_packed(packed, canonicalMap).equals(input);
+
+		BitReader in = new BitReader(packed);
+		for (int i = 0; i < input.length(); i++)
+			check &= canonical.decode(in) == input.charAt(i);
+
+		assertTrue("Failed to decode canonical codes", check);
+	}
+
+	@Test
+	public void testHeader() {
+		byte[] header = canonical.toHeader();
+		CanonicalCode read = CanonicalCode.fromHeader(ByteBuffer.wrap(header));
+
+		boolean check = header.length <= 2 * canonical.symbols().length;
+		for (int symbol : canonical.symbols())
+			check &= read.length(symbol) == canonical.length(symbol) && read.code(symbol) == canonical.code(symbol);
+
+		/* Scattered symbols use the sparse format */
+		CanonicalCode sparse = new CanonicalCode(new int[] {5, 70000, 1000000}, new int[] {1, 2, 2});
+		CanonicalCode readSparse = CanonicalCode.fromHeader(ByteBuffer.wrap(sparse.toHeader()));
+		check &= readSparse.length(70000) == 2 && readSparse.code(1000000) == 3 && readSparse.code(5) == 0;
+
+		assertTrue("Failed to read back the code header", check);
+	}
+
+	@Test
+	public void testLongCodes() {
+		/* Lengths 1, 2, ..., 29, 30, 30: longer than the lookup table */
+		int[] symbols = new int[31];
+		int[] lengths = new int[31];
+		for (int i = 0; i < 31; i++) {
+			symbols[i] = 'a' + i;
+			lengths[i] = Math.min(i + 1, 30);
+		}
+		CanonicalCode code = new CanonicalCode(symbols, lengths);
+
+		BitWriter writer = new BitWriter();
+		for (int i = 0; i < 31; i++)
+			code.encode(symbols[30 - i], writer);
+		BitReader in = new BitReader(writer.toPackedBits());
+
+		boolean check = true;
+		for (int i = 0; i < 31; i++)
+			check &= code.decode(in) == symbols[30 - i];
+
+		assertTrue("Failed to decode codes longer than the lookup table", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLengths() {
+		new CanonicalCode(new int[] {'a', 'b', 'c'}, new int[] {1, 1, 1});
+	}
+}
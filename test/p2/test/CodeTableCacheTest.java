@@ -0,0 +1,102 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.Codec.BitReader;
+import p2.Codec.BitWriter;
+import p2.Codec.CanonicalCode;
+import p2.Codec.CodeTableCache;
+
+public class CodeTableCacheTest {
+
+	@Test
+	public void testSimilarPayloadsShareCode() {
+		CodeTableCache cache = new CodeTableCache(8);
+		Random random = new Random(21);
+
+		/**
+		 * Payloads drawn from the same skewed distribution almost always reuse a cached code,
+		 * except when the count of a rare symbol falls on the other side of a rounding boundary
+		 */
+		boolean check = true;
+		for (int i = 0; i < 50; i++) {
+			String payload = payload(random, 4000);
+			check &= roundTrips(cache.get(payload), payload);
+		}
+		check &= cache.getHits() >= 40 && cache.getHits() + cache.getMisses() == 50 && cache.size() == cache.getMisses();
+
+		assertTrue("Similar payloads should reuse the cached code", check);
+	}
+
+	@Test
+	public void testMissAndEviction() {
+		CodeTableCache cache = new CodeTableCache(2, 0);
+
+		/* Different symbol sets never share a fingerprint, so none of these reuse a code */
+		cache.get("aaaabbbb");
+		cache.get("aaaabbbbc");
+		cache.get("xy");
+		cache.get("xyz");
+		boolean check = cache.getMisses() == 4 && cache.getHits() == 0 && cache.getRejections() == 0
+				&& cache.size() == 2 && cache.getEvictions() == 2;
+
+		/* "aaaabbbb" was evicted, while the least recently used code is now the one for "xy" */
+		cache.get("xyz");
+		cache.get("aaaabbbb");
+		check &= cache.getHits() == 1 && cache.getMisses() == 5 && cache.getEvictions() == 3;
+
+		cache.clear();
+		check &= cache.size() == 0 && cache.getHits() == 0 && cache.getEvictions() == 0;
+
+		assertTrue("Cache didn't miss or evict as expected", check);
+	}
+
+	@Test
+	public void testRejection() {
+		CodeTableCache cache = new CodeTableCache(2, 0);
+
+		/**
+		 * Both payloads have ideal lengths that round to 1, 2 and 2 bits, so they share a fingerprint.
+		 * The code for the first one is exact, but it takes about 0.011 bits per symbol more than
+		 * the entropy of the second one, which is more than its own redundancy of 0 allows
+		 */
+		String exact = "aabc";
+		String skewed = "a".repeat(45) + "b".repeat(30) + "c".repeat(25);
+		CanonicalCode first = cache.get(exact);
+		CanonicalCode second = cache.get(skewed);
+		boolean check = first != second && cache.getRejections() == 1 && cache.getMisses() == 2
+				&& cache.getHits() == 0 && cache.size() == 1 && cache.getEvictions() == 0;
+
+		/* The rejected entry was replaced by the code built for the second payload */
+		check &= cache.get(skewed) == second && cache.getHits() == 1 && cache.size() == 1;
+
+		assertTrue("A cached code too costly for the new frequencies should be rejected and replaced", check);
+	}
+
+	/* Text where 'a' is most likely and every next letter about half as likely */
+	private static String payload(Random random, int length) {
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			char c = 'a';
+			while (c < 'h' && random.nextBoolean())
+				c++;
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+	private static boolean roundTrips(CanonicalCode code, String payload) {
+		BitWriter out = new BitWriter();
+		for (int i = 0; i < payload.length(); i++)
+			code.encode(payload.charAt(i), out);
+		BitReader in = new BitReader(out.toPackedBits());
+		boolean check = true;
+		for (int i = 0; i < payload.length(); i++)
+			check &= code.decode(in) == payload.charAt(i);
+		return check;
+	}
+}
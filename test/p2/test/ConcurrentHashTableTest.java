@@ -0,0 +1,80 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import p2.DataStructures.Map.ConcurrentHashTable;
+import p2.DataStructures.Map.Map;
+
+public class ConcurrentHashTableTest {
+
+	private static final int THREADS = 8;
+
+	@Test
+	public void testConcurrentMerge() throws Exception {
+		/* Small enough to grow many times while the threads count */
+		Map<Integer, Integer> counts = new ConcurrentHashTable<Integer, Integer>(1, (key) -> key, 4);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		Future<?>[] tasks = new Future<?>[THREADS];
+		for (int t = 0; t < THREADS; t++)
+			tasks[t] = pool.submit(() -> {
+				for (int i = 0; i < 50000; i++)
+					counts.merge(i % 1000, 1, Integer::sum);
+			});
+		for (Future<?> task : tasks)
+			task.get();
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+
+		boolean check = counts.size() == 1000;
+		for (int key = 0; key < 1000; key++)
+			check &= counts.get(key) == 50 * THREADS;
+
+		assertTrue("Counts were lost by concurrent merges", check);
+	}
+
+	@Test
+	public void testReadsDuringWrites() throws Exception {
+		/* Keys below 1000 are never changed, so readers must always find them, even while the table grows */
+		Map<Integer, Integer> map = new ConcurrentHashTable<Integer, Integer>();
+		for (int key = 0; key < 1000; key++)
+			map.put(key, key);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		Future<?>[] tasks = new Future<?>[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			tasks[t] = pool.submit(() -> {
+				boolean found = true;
+				for (int i = 0; i < 100000; i++) {
+					if (thread % 2 == 0) {
+						int key = 1000 + thread * 100000 + i;
+						map.put(key, i);
+						if (i % 2 == 0)
+							found &= map.remove(key) == i;
+					}
+					else {
+						Integer value = map.get(i % 1000);
+						found &= value != null && value == i % 1000;
+					}
+				}
+				return found;
+			});
+		}
+		boolean check = true;
+		for (Future<?> task : tasks)
+			check &= (Boolean) task.get();
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+
+		check &= map.size() == 1000 + THREADS / 2 * 50000 && map.getKeys().size() == map.size();
+
+		assertTrue("A lookup missed a key or a write was lost", check);
+	}
+}
@@ -0,0 +1,72 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.CanonicalCode;
+import p2.DataStructures.Map.Map;
+import p2.Utils.CorpusGenerator;
+
+public class CorpusGeneratorTest {
+
+	private static final String[] DISTRIBUTIONS = { "uniform", "zipf", "fibonacci", "natural", "binary" };
+
+	@Test
+	public void testReproducible() {
+		boolean check = true;
+		for (String distribution : DISTRIBUTIONS) {
+			byte[] whole = CorpusGenerator.of(distribution, 20, 42).generate(10000);
+
+			/* Same seed, different chunks: same bytes */
+			CorpusGenerator chunked = CorpusGenerator.of(distribution, 20, 42);
+			byte[] pieces = new byte[10000];
+			for (int offset = 0, length = 1; offset < pieces.length; offset += length, length = length * 3 % 1000 + 1)
+				chunked.fill(pieces, offset, Math.min(length, pieces.length - offset));
+
+			check &= Arrays.equals(whole, pieces) && !Arrays.equals(whole, CorpusGenerator.of(distribution, 20, 43).generate(10000));
+		}
+
+		assertTrue("Generated input depends on more than the seed", check);
+	}
+
+	@Test
+	public void testFibonacciTreeDepth() {
+		/* A whole round of 20 symbols is F(22) - 1 = 17710 chars, and its code is 19 bits deep */
+		String text = CorpusGenerator.fibonacci(20, 7).generateText(17710);
+		Map<String, Integer> fD = HuffmanCoding.compute_fd(text);
+		CanonicalCode code = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(fD));
+
+		boolean check = fD.size() == 20 && code.maxLength() == 19 && fD.get("!") == 1 && fD.get("4") == 6765;
+
+		/* Natural text is plain ASCII with words, sentences and a skewed distribution */
+		String natural = CorpusGenerator.naturalLanguage(7).generateText(20000);
+		check &= natural.chars().allMatch((c) -> c == '\n' || (c >= ' ' && c < 127)) && natural.contains(". ")
+				&& HuffmanCoding.compute_fd(natural).get(" ") > HuffmanCoding.compute_fd(natural).get("e");
+
+		assertTrue("Generated distributions don't have the expected shape", check);
+	}
+
+	@Test
+	public void testStreamToFile() throws IOException {
+		Path file = Files.createTempFile("corpus", ".txt");
+		try {
+			long size = (3 << 16) + 123;
+			CorpusGenerator.zipf(64, 1.2, 9).write(size, file);
+			boolean check = Files.size(file) == size
+					&& Arrays.equals(Files.readAllBytes(file), CorpusGenerator.zipf(64, 1.2, 9).generate((int) size));
+
+			check &= CorpusGenerator.parseSize("10GB") == 10L << 30 && CorpusGenerator.parseSize("512") == 512;
+
+			assertTrue("Streamed file differs from the generated bytes", check);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import p2.Codec.FrequencyCounter;
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+import p2.Utils.CorpusGenerator;
+
+public class FrequencyCounterTest {
+
+	/* Small enough threshold to split the inputs into many pieces counted by the pool */
+	private static final int THRESHOLD = 100;
+
+	@Test
+	public void testCountChars() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			FrequencyCounter counter = new FrequencyCounter(pool, THRESHOLD);
+			boolean check = true;
+			for (int length : new int[] { 0, THRESHOLD, THRESHOLD + 1, 12345 }) {
+				String text = CorpusGenerator.naturalLanguage(length).generateText(length) + "€";
+
+				long[] expected = new long[DenseFrequencyTable.CHAR_ALPHABET];
+				for (int i = 0; i < text.length(); i++)
+					expected[text.charAt(i)]++;
+
+				check &= Arrays.equals(counter.countChars(text).counts(), expected);
+			}
+
+			assertTrue("Characters counted in parallel differ from a sequential count", check);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testCountBytes() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			FrequencyCounter counter = new FrequencyCounter(pool, THRESHOLD);
+			byte[] bytes = CorpusGenerator.zipf(256, 1.1, 5).generate(12345);
+
+			long[] expected = new long[DenseFrequencyTable.BYTE_ALPHABET];
+			for (byte b : bytes)
+				expected[b & 0xFF]++;
+
+			/* The buffer is counted from its position, which is left untouched */
+			ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 7).position(7);
+			buffer.put(bytes).position(7);
+
+			boolean check = Arrays.equals(counter.countBytes(bytes).counts(), expected)
+					&& Arrays.equals(counter.countBytes(buffer).counts(), expected) && buffer.position() == 7;
+
+			assertTrue("Bytes counted in parallel differ from a sequential count", check);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
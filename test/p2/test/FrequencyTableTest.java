@@ -0,0 +1,55 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+import p2.DataStructures.FrequencyTable.SparseFrequencyTable;
+import p2.DataStructures.Map.Map;
+
+public class FrequencyTableTest {
+
+	@Test
+	public void testSparseMatchesDense() {
+		FrequencyTable sparse = new SparseFrequencyTable(1);
+		FrequencyTable dense = new DenseFrequencyTable(DenseFrequencyTable.CHAR_ALPHABET);
+
+		/* Enough distinct symbols to force the sparse table to grow several times */
+		for (int i = 0; i < 100000; i++) {
+			int symbol = (i * 7919) % 5003;
+			sparse.increment(symbol);
+			dense.increment(symbol);
+		}
+
+		boolean check = sparse.size() == dense.size() && sparse.total() == dense.total();
+		int[] symbols = sparse.symbols();
+		for (int i = 0; i < symbols.length; i++)
+			check &= sparse.get(symbols[i]) == dense.get(symbols[i]) && (i == 0 || symbols[i - 1] < symbols[i]);
+
+		assertTrue("Sparse and dense tables counted differently", check);
+	}
+
+	@Test
+	public void testComputeFd() {
+		Map<String, Integer> fD = HuffmanCoding.compute_fd("ABBCCCDDDDEEEEEFFFFFF");
+
+		boolean check = fD.size() == 6 && fD.get("A") == 1 && fD.get("C") == 3 && fD.get("F") == 6;
+
+		assertTrue("Failed to compute the frequency distribution", check);
+	}
+
+	@Test
+	public void testToMapScaling() {
+		FrequencyTable table = new SparseFrequencyTable();
+		table.add('a', 3L * Integer.MAX_VALUE);
+		table.add('b', 1);
+		Map<String, Integer> fD = table.toMap();
+
+		boolean check = fD.get("a") > 0 && fD.get("b") == 1 && fD.get("a") > fD.get("b");
+
+		assertTrue("Failed to scale counts that don't fit in an int", check);
+	}
+}
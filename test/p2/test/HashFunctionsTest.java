@@ -0,0 +1,58 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.List;
+import p2.DataStructures.Map.HashFunction;
+import p2.DataStructures.Map.HashFunctions;
+import p2.DataStructures.Map.HashQualityReport;
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.Map;
+
+public class HashFunctionsTest {
+
+	@Test
+	public void testMurmur3() {
+		byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+
+		/* Reference value of MurmurHash3_x86_32("hello", seed 0) */
+		boolean check = HashFunctions.murmur3(hello, 0, hello.length, 0) == 613153351;
+		check &= HashFunctions.murmur3("listen", 0) != HashFunctions.murmur3("silent", 0);
+
+		assertTrue("Wrong MurmurHash3 values", check);
+	}
+
+	@Test
+	public void testReportShowsClustering() {
+		/* Short words over a small alphabet, where the sum of chars falls in a narrow range */
+		List<String> words = new ArrayList<String>();
+		for (char a = 'a'; a <= 'z'; a++)
+			for (char b = 'a'; b <= 'z'; b++)
+				for (char c = 'a'; c <= 'j'; c++)
+					words.add("" + a + b + c);
+
+		HashQualityReport<String> sum = new HashQualityReport<String>(words, HashFunctions.charSum(), 8192);
+		HashQualityReport<String> murmur = new HashQualityReport<String>(words, HashFunctions.murmur3(), 8192);
+
+		boolean check = sum.getKeyCount() == 6760 && sum.getUsedBuckets() < 100 && sum.getMaxChainLength() > 100;
+		check &= murmur.getUsedBuckets() > 4000 && murmur.getMaxChainLength() < 10;
+		check &= murmur.getExpectedProbesHit() < 1.2 * murmur.getIdealProbesHit();
+
+		assertTrue("Report did not tell the hash functions apart", check);
+	}
+
+	@Test
+	public void testNegativeHashCodes() {
+		HashFunction<String> negative = (key) -> -key.length() - 1;
+		Map<String, Integer> map = new HashTableSC<String, Integer>(7, negative);
+		for (int i = 0; i < 50; i++)
+			map.put("k" + i, i);
+
+		assertTrue("Failed with negative hash codes", map.size() == 50 && map.get("k42") == 42);
+	}
+}
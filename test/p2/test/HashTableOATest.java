@@ -0,0 +1,61 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+public class HashTableOATest {
+
+	@Test
+	public void testMatchesJavaMap() {
+		/* A constant hash puts every key in the same run, the worst case for backward shift deletion */
+		Map<Integer, Integer> clustered = new HashTableOA<Integer, Integer>(1, (key) -> key % 3);
+		Map<Integer, Integer> spread = new HashTableOA<Integer, Integer>();
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+		Random random = new Random(5);
+		boolean check = true;
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(500);
+			if (random.nextInt(3) == 0) {
+				Integer removed = expected.remove(key);
+				check &= Objects.equals(clustered.remove(key), removed) && Objects.equals(spread.remove(key), removed);
+			}
+			else {
+				expected.put(key, i);
+				clustered.put(key, i);
+				spread.put(key, i);
+			}
+		}
+
+		check &= clustered.size() == expected.size() && spread.size() == expected.size();
+		for (int key = 0; key < 500; key++)
+			check &= Objects.equals(clustered.get(key), expected.get(key)) && Objects.equals(spread.get(key), expected.get(key));
+
+		assertTrue("Open addressing table differs from java.util.HashMap", check);
+	}
+
+	@Test
+	public void testKeysAndClear() {
+		Map<String, Integer> map = new HashTableOA<String, Integer>();
+		for (int i = 0; i < 100; i++)
+			map.put("key" + i, i);
+
+		int sum = 0;
+		for (int value : map.getValues())
+			sum += value;
+		boolean check = map.getKeys().size() == 100 && sum == 4950;
+
+		map.clear();
+		check &= map.isEmpty() && map.get("key1") == null;
+
+		assertTrue("Failed to list or clear the entries", check);
+	}
+}
@@ -0,0 +1,50 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.DataStructures.Map.HashFunctions;
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.Map;
+
+public class HashTableSCTest {
+
+	@Test
+	public void testIncrementalMatchesJavaMap() {
+		Map<Integer, Integer> incremental = new HashTableSC<Integer, Integer>(1, HashFunctions.fmix(), true);
+		Map<Integer, Integer> eager = new HashTableSC<Integer, Integer>(1, HashFunctions.fmix(), false);
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+
+		/* Mostly puts, so the tables grow many times while being read and removed from */
+		Random random = new Random(9);
+		boolean check = true;
+		for (int i = 0; i < 30000; i++) {
+			int key = random.nextInt(5000);
+			switch (random.nextInt(4)) {
+			case 0:
+				Integer removed = expected.remove(key);
+				check &= Objects.equals(incremental.remove(key), removed) && Objects.equals(eager.remove(key), removed);
+				break;
+			case 1:
+				check &= Objects.equals(incremental.get(key), expected.get(key));
+				break;
+			default:
+				expected.put(key, i);
+				incremental.put(key, i);
+				eager.put(key, i);
+			}
+		}
+
+		check &= incremental.size() == expected.size() && eager.size() == expected.size();
+		check &= incremental.getKeys().size() == expected.size();
+		for (int key = 0; key < 5000; key++)
+			check &= Objects.equals(incremental.get(key), expected.get(key)) && Objects.equals(eager.get(key), expected.get(key));
+
+		assertTrue("Incremental table differs from java.util.HashMap", check);
+	}
+}
@@ -0,0 +1,65 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.BitReader;
+import p2.Codec.BitWriter;
+import p2.Codec.CanonicalCode;
+import p2.Codec.LengthLimitedCode;
+import p2.DataStructures.FrequencyTable.FrequencyTable;
+import p2.DataStructures.FrequencyTable.SparseFrequencyTable;
+
+public class LengthLimitedCodeTest {
+
+	/* Fibonacci frequencies give the deepest possible Huffman tree */
+	private FrequencyTable fibonacci(int symbols) {
+		FrequencyTable table = new SparseFrequencyTable();
+		long previous = 1, current = 1;
+		for (int i = 0; i < symbols; i++) {
+			table.add('a' + i, current);
+			long next = previous + current;
+			previous = current;
+			current = next;
+		}
+		return table;
+	}
+
+	@Test
+	public void testBoundIsRespected() {
+		FrequencyTable table = fibonacci(40);
+		LengthLimitedCode limited = LengthLimitedCode.build(table, 12);
+		CanonicalCode code = limited.getCode();
+
+		boolean check = code.maxLength() <= 12 && limited.getExtraBits() > 0 && limited.getOverhead() > 0;
+
+		BitWriter writer = new BitWriter();
+		for (int symbol : table.symbols())
+			code.encode(symbol, writer);
+		BitReader in = new BitReader(writer.toPackedBits());
+		for (int symbol : table.symbols())
+			check &= code.decode(in) == symbol;
+
+		assertTrue("Length limited code is too long or fails to decode", check);
+	}
+
+	@Test
+	public void testLooseBoundIsOptimal() {
+		String input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTT";
+		FrequencyTable table = HuffmanCoding.compute_frequencies(input);
+		LengthLimitedCode limited = LengthLimitedCode.build(table, CanonicalCode.MAX_LENGTH);
+
+		/* Without a binding bound the code is as small as the tree's */
+		long treeBits = HuffmanCoding.encode(HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(input))), input).length();
+		boolean check = limited.getExtraBits() == 0 && limited.getEncodedBits() == treeBits;
+
+		assertTrue("Unbounded package-merge is not optimal", check);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManySymbols() {
+		LengthLimitedCode.build(fibonacci(9), 3);
+	}
+}
@@ -0,0 +1,58 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import p2.DataStructures.Map.HashFunctions;
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.InstrumentedMap;
+import p2.DataStructures.Map.MapStatistics;
+
+public class MapStatisticsTest {
+
+	/* Puts 100 keys, then looks up those 100 and 100 missing ones */
+	private MapStatistics run(InstrumentedMap<String, Integer> map) {
+		map.setStatisticsEnabled(true);
+		for (int i = 0; i < 100; i++)
+			map.put("key" + i, i);
+		for (int i = 0; i < 200; i++)
+			map.get("key" + i);
+		return map.getStatistics();
+	}
+
+	@Test
+	public void testCounters() {
+		/* Every put looks for the key before adding it, and misses */
+		MapStatistics chained = run(new HashTableSC<String, Integer>());
+		MapStatistics open = run(new HashTableOA<String, Integer>());
+
+		boolean check = true;
+		for (MapStatistics statistics : new MapStatistics[] {chained, open}) {
+			check &= statistics.getLookups() == 300 && statistics.getHits() == 100 && statistics.getMisses() == 200;
+			check &= statistics.getAverageProbesHit() >= 1 && statistics.getRehashCount() > 0 && statistics.getMaxChainLength() >= 1;
+		}
+
+		assertTrue("Wrong map statistics", check);
+	}
+
+	@Test
+	public void testBadHashShowsLongChains() {
+		MapStatistics sum = run(new HashTableSC<String, Integer>(HashFunctions.charSum()));
+		MapStatistics murmur = run(new HashTableSC<String, Integer>(HashFunctions.murmur3()));
+
+		assertTrue("Statistics did not show the clustering", sum.getMaxChainLength() > murmur.getMaxChainLength()
+				&& sum.getAverageProbesHit() > murmur.getAverageProbesHit());
+	}
+
+	@Test
+	public void testDisabled() {
+		InstrumentedMap<String, Integer> map = new HashTableOA<String, Integer>();
+		boolean check = map.getStatistics() == null;
+		map.setStatisticsEnabled(true);
+		map.setStatisticsEnabled(false);
+
+		assertTrue("Statistics were not switched off", check && map.getStatistics() == null);
+	}
+}
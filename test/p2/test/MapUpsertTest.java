@@ -0,0 +1,74 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.InstrumentedMap;
+import p2.DataStructures.Map.Map;
+
+public class MapUpsertTest {
+
+	@Test
+	public void testMatchesJavaMap() {
+		boolean check = matchesJavaMap(new HashTableSC<Integer, Integer>(1, (key) -> key, true))
+				&& matchesJavaMap(new HashTableSC<Integer, Integer>())
+				&& matchesJavaMap(new HashTableOA<Integer, Integer>(1, (key) -> key % 7));
+
+		assertTrue("merge, compute or getOrDefault differ from java.util.HashMap", check);
+	}
+
+	@Test
+	public void testSingleLookup() {
+		String input = "abracadabra alakazam";
+		boolean check = true;
+		for (InstrumentedMap<String, Integer> map : java.util.List.of(new HashTableSC<String, Integer>(), new HashTableOA<String, Integer>())) {
+			map.setStatisticsEnabled(true);
+			HuffmanCoding.compute_fd(input, map);
+			check &= map.getStatistics().getLookups() == input.length();
+
+			/* Same counts as the FrequencyTable based compute_fd */
+			Map<String, Integer> expected = HuffmanCoding.compute_fd(input);
+			check &= map.size() == expected.size();
+			for (String key : expected.getKeys())
+				check &= map.get(key).equals(expected.get(key));
+		}
+
+		assertTrue("Counting a character should take a single lookup", check);
+	}
+
+	private static boolean matchesJavaMap(Map<Integer, Integer> map) {
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		Random random = new Random(19);
+		boolean check = true;
+		for (int i = 0; i < 20000; i++) {
+			int key = random.nextInt(300);
+			int value = random.nextInt(10) - 5;
+			switch (random.nextInt(3)) {
+			case 0:
+				/* A sum of 0 removes the key */
+				check &= Objects.equals(map.merge(key, value, (a, b) -> a + b == 0 ? null : a + b),
+						expected.merge(key, value, (a, b) -> a + b == 0 ? null : a + b));
+				break;
+			case 1:
+				check &= Objects.equals(map.compute(key, (k, v) -> v == null ? k : v % 3 == 0 ? null : v + 1),
+						expected.compute(key, (k, v) -> v == null ? k : v % 3 == 0 ? null : v + 1));
+				break;
+			default:
+				check &= map.getOrDefault(key, -1).equals(expected.getOrDefault(key, -1));
+			}
+		}
+
+		check &= map.size() == expected.size();
+		for (int key = 0; key < 300; key++)
+			check &= Objects.equals(map.get(key), expected.get(key));
+		return check;
+	}
+}
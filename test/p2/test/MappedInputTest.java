@@ -0,0 +1,91 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.Codec.MappedInput;
+import p2.Codec.StreamingCompressor;
+import p2.DataStructures.FrequencyTable.DenseFrequencyTable;
+
+public class MappedInputTest {
+
+	private static final int WINDOW = 64;
+
+	/* Skewed random bytes, 1000 of them fill 15 windows and 40 bytes of a 16th */
+	private static byte[] sample(int size) {
+		Random random = new Random(4);
+		byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++)
+			bytes[i] = (byte) (random.nextInt(1 + random.nextInt(256)));
+		return bytes;
+	}
+
+	/* Maps the bytes window by window, checking the windows cover them in order */
+	private static boolean mapsInWindows(byte[] bytes) throws IOException {
+		Path file = Files.createTempFile("mapped", ".bin");
+		try (MappedInput in = new MappedInput(Files.write(file, bytes), WINDOW)) {
+			ByteArrayOutputStream seen = new ByteArrayOutputStream();
+			int[] windows = {0};
+			boolean[] inOrder = {true};
+			in.forEachWindow((window, offset) -> {
+				byte[] piece = new byte[window.remaining()];
+				window.get(piece);
+				inOrder[0] &= offset == seen.size() && piece.length > 0 && piece.length <= WINDOW;
+				windows[0]++;
+				seen.write(piece);
+			});
+
+			/* Byte counts match a plain count of the same bytes */
+			long[] expected = new long[DenseFrequencyTable.BYTE_ALPHABET];
+			for (byte b : bytes)
+				expected[b & 0xFF]++;
+			DenseFrequencyTable counted = in.countBytes();
+
+			return in.size() == bytes.length && inOrder[0] && windows[0] == (bytes.length + WINDOW - 1) / WINDOW
+					&& Arrays.equals(seen.toByteArray(), bytes) && Arrays.equals(counted.counts(), expected);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/* Compresses with compressMapped over small windows and decompresses it back */
+	private static boolean roundTrip(byte[] bytes) throws IOException {
+		Path input = Files.createTempFile("mapped", ".bin");
+		Path compressed = Files.createTempFile("mapped", ".huf");
+		Path output = Files.createTempFile("mapped", ".out");
+		try {
+			Files.write(input, bytes);
+			StreamingCompressor compressor = new StreamingCompressor(16, WINDOW);
+			long symbols = compressor.compressMapped(input, compressed);
+			long decoded = compressor.decompress(compressed, output);
+
+			return symbols == bytes.length && decoded == bytes.length && Arrays.equals(Files.readAllBytes(output), bytes);
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(compressed);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test
+	public void testWindows() throws IOException {
+		boolean check = mapsInWindows(sample(1000)) && mapsInWindows(sample(WINDOW)) && mapsInWindows(new byte[0]);
+
+		assertTrue("Mapped windows don't cover the file in order", check);
+	}
+
+	@Test
+	public void testMappedRoundTrip() throws IOException {
+		boolean check = roundTrip(sample(1000)) && roundTrip(new byte[] { 7 }) && roundTrip(new byte[0]);
+
+		assertTrue("Files compressed from mapped windows don't round trip", check);
+	}
+}
@@ -0,0 +1,61 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.BitWriter;
+import p2.Codec.PackedBits;
+import p2.DataStructures.Map.Map;
+
+public class PackedBitsTest {
+
+	String input;
+	Map<String,String> encodedHuffman;
+	String output;
+	PackedBits packed;
+
+	@Before
+	public void setUp() throws Exception {
+		input = "AAAAAAABBBBBBBCCCCCCCDDDDDDDDDEEEEEEFFFFFFGGGGGGGTTTTTTTSSSSSCCCCCCCAAGGGSGSGDGDGGDGEEEMOKOKKKKKKOKOOKOKJJUYGTTFRRDDESWAWVHNJKMLKKJGDRDFJVVCCCCCCCCCCCCCPPPPOOOIIT";
+
+		encodedHuffman = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(input)));
+		output = HuffmanCoding.encode(encodedHuffman, input);
+		packed = HuffmanCoding.encode_packed(encodedHuffman, input);
+	}
+
+	@Test
+	public void testPackedMatchesString() {
+		boolean check = packed.getBitLength() == output.length()
+				&& packed.getByteLength() == (output.length() + 7) / 8
+				&& packed.toBitString().equals(output);
+
+		assertTrue("Packed encoding does not match the encoded string", check);
+	}
+
+	@Test
+	public void testWordBoundaries() {
+		BitWriter writer = new BitWriter(1);
+		StringBuilder expected = new StringBuilder();
+
+		/* Codes of every length from 1 to 64 so that writes cross every possible word boundary */
+		for (int length = 1; length <= 64; length++) {
+			long bits = 0x9E3779B97F4A7C15L * length;
+			writer.write(bits, length);
+			for (int i = length - 1; i >= 0; i--)
+				expected.append((bits >>> i) & 1);
+		}
+
+		assertTrue("Failed to pack bits across word boundaries", writer.toPackedBits().toBitString().equals(expected.toString()));
+	}
+
+	@Test
+	public void testBytes() {
+		byte[] bytes = PackedBits.fromBitString("1000000011").getBytes();
+		boolean check = bytes.length == 2 && bytes[0] == (byte) 0x80 && bytes[1] == (byte) 0xC0;
+
+		assertTrue("Failed to pack bits most significant bit first", check);
+	}
+}
@@ -0,0 +1,80 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.BitWriter;
+import p2.Codec.CanonicalCode;
+import p2.Codec.DictionaryRegistry;
+import p2.Codec.StaticDictionary;
+
+public class StaticDictionaryTest {
+
+	@Test
+	public void testTrainSaveAndLoad() throws IOException {
+		Path corpus = Files.createTempDirectory("corpus");
+		Path file = Files.createTempFile("dictionary", ".hdic");
+		try {
+			for (int i = 0; i < 20; i++)
+				Files.writeString(corpus.resolve("message" + i + ".json"), message(i));
+			StaticDictionary trained = StaticDictionary.train(7, corpus);
+			trained.save(file);
+
+			DictionaryRegistry registry = new DictionaryRegistry();
+			registry.load(file);
+
+			/* Messages like the corpus take fewer bytes than a per-message code header and its codes would */
+			boolean check = true;
+			for (int i = 20; i < 40; i++) {
+				String message = message(i);
+				byte[] compressed = registry.compress(7, message);
+				check &= registry.decompress(7, compressed).equals(message);
+				check &= compressed.length < message.length() && compressed.length < perMessageSize(message);
+			}
+			assertTrue("Dictionary didn't survive a round trip through a file", check);
+		} finally {
+			for (int i = 0; i < 20; i++)
+				Files.deleteIfExists(corpus.resolve("message" + i + ".json"));
+			Files.deleteIfExists(corpus);
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testUnseenChars() {
+		StaticDictionary dictionary = StaticDictionary.train(1, HuffmanCoding.compute_fd("aaaabbc"));
+
+		/* Chars outside the corpus, including the escape char itself, are escaped */
+		String message = "abcd\u00E9\uFFFF\uD83D\uDE00";
+		boolean check = dictionary.decompress(dictionary.compress(message)).equals(message)
+				&& dictionary.decompress(dictionary.compress("")).isEmpty();
+
+		try {
+			dictionary.decompress(new byte[] { 100 });
+			check = false;
+		} catch (IllegalArgumentException e) {
+			// Expected, 100 chars can't fit in no bits
+		}
+
+		assertTrue("Failed to escape chars missing from the dictionary", check);
+	}
+
+	/* Bytes taken by a code built for the message alone, with its header */
+	private static int perMessageSize(String message) {
+		CanonicalCode code = CanonicalCode.fromTree(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(message)));
+		BitWriter out = new BitWriter();
+		for (int i = 0; i < message.length(); i++)
+			code.encode(message.charAt(i), out);
+		return code.toHeader().length + out.toPackedBits().getByteLength();
+	}
+
+	private static String message(int i) {
+		return "{\"id\":" + i * 7919 + ",\"level\":\"" + (i % 3 == 0 ? "warn" : "info") + "\",\"msg\":\"request served\"}";
+	}
+}
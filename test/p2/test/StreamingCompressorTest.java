@@ -0,0 +1,109 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.StreamingCompressor;
+
+public class StreamingCompressorTest {
+
+	/* Compresses and decompresses the text, returning whether the decoded file has the same bytes */
+	private static boolean roundTrip(String text, int chunkSize) throws IOException {
+		Path input = Files.createTempFile("streaming", ".txt");
+		Path compressed = Files.createTempFile("streaming", ".huf");
+		Path output = Files.createTempFile("streaming", ".out");
+		try {
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			Files.write(input, bytes);
+
+			StreamingCompressor compressor = new StreamingCompressor(chunkSize);
+			long characters = compressor.compress(input, compressed);
+			long decoded = compressor.decompress(compressed, output);
+
+			return characters == text.length() && decoded == text.length() && Arrays.equals(Files.readAllBytes(output), bytes);
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(compressed);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test
+	public void testEmptyAndSingleChar() throws IOException {
+		boolean check = roundTrip("", 16) && roundTrip("a", 16) && roundTrip("€", 16);
+
+		assertTrue("Empty or single character files don't round trip", check);
+	}
+
+	@Test
+	public void testMultiByteCharsAcrossChunks() throws IOException {
+		/* 1, 2, 3 and 4 byte UTF-8 characters, shifted by the filler so they straddle every chunk boundary */
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < 5000; i++)
+			text.append("aé€😀bñ中𝄞").append("x".repeat(i % 5));
+
+		boolean check = roundTrip(text.toString(), 16) && roundTrip(text.toString(), 17) && roundTrip(text.toString(), 1 << 16);
+
+		assertTrue("Characters split between chunks don't round trip", check);
+	}
+
+	@Test
+	public void testCorruptHeaderSize() throws IOException {
+		Path input = Files.createTempFile("streaming", ".txt");
+		Path compressed = Files.createTempFile("streaming", ".huf");
+		Path output = Files.createTempFile("streaming", ".out");
+		try {
+			Files.write(input, "abracadabra".getBytes(StandardCharsets.UTF_8));
+			StreamingCompressor compressor = new StreamingCompressor();
+			compressor.compress(input, compressed);
+
+			/* The size of the code header comes right after the magic and the character count */
+			boolean check = true;
+			for (int size : new int[] { -1, Integer.MAX_VALUE }) {
+				try (FileChannel channel = FileChannel.open(compressed, StandardOpenOption.WRITE)) {
+					channel.write(ByteBuffer.allocate(4).putInt(size).flip(), 12);
+				}
+				try {
+					compressor.decompress(compressed, output);
+					check = false;
+				} catch (IOException e) {
+					// Expected
+				}
+			}
+
+			assertTrue("A corrupt header size should be reported as an IOException", check);
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(compressed);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test
+	public void testTreeIsNotPrinted() {
+		/* Building a tree is a library call, only HuffmanEncodedResult prints it */
+		PrintStream original = System.out;
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		try {
+			System.setOut(new PrintStream(captured));
+			HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd("abracadabra"));
+		} finally {
+			System.setOut(original);
+		}
+
+		assertTrue("huffman_tree printed to the console", captured.size() == 0);
+	}
+}
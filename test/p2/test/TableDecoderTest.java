@@ -0,0 +1,58 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.PackedBits;
+import p2.Codec.TableDecoder;
+import p2.DataStructures.Map.Map;
+import p2.Utils.CorpusGenerator;
+
+public class TableDecoderTest {
+
+	/* A whole round of 20 fibonacci symbols, whose codes go from 1 to 19 bits deep */
+	private static final String TEXT = CorpusGenerator.fibonacci(20, 11).generateText(17710);
+
+	@Test
+	public void testDeepCodes() {
+		Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(TEXT)));
+
+		boolean check = true;
+		boolean unaligned = false;
+		int deepest = 0;
+		for (String symbol : codes.getKeys()) {
+			deepest = Math.max(deepest, codes.get(symbol).length());
+
+			/* Ending with every symbol makes the last code end at every offset of the padded tail */
+			String text = TEXT + symbol;
+			PackedBits packed = HuffmanCoding.encode_packed(codes, text);
+			unaligned |= packed.getBitLength() % 8 != 0;
+
+			check &= HuffmanCoding.decode_packed(packed, codes).equals(text)
+					&& HuffmanCoding.decodeHuff(packed.toBitString(), codes).equals(text)
+					&& new TableDecoder(codes, 4).decode(packed).equals(text);
+		}
+
+		assertTrue("Codes aren't deeper than the root table", deepest == 19);
+		assertTrue("No bit length ends in the middle of a byte", unaligned);
+		assertTrue("Codes longer than the root table are not decoded correctly", check);
+	}
+
+	@Test
+	public void testTruncatedCode() {
+		Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(TEXT)));
+		PackedBits packed = HuffmanCoding.encode_packed(codes, TEXT);
+		PackedBits truncated = new PackedBits(packed.getBytes(), packed.getBitLength() - 1);
+
+		boolean check = false;
+		try {
+			new TableDecoder(codes).decode(truncated);
+		} catch (IllegalArgumentException e) {
+			check = true;
+		}
+
+		assertTrue("Decoding a code cut short should throw", check);
+	}
+}
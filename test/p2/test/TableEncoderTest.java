@@ -0,0 +1,91 @@
+package p2.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import p2.HuffmanCoding;
+import p2.Codec.BitReader;
+import p2.Codec.BitWriter;
+import p2.Codec.CanonicalCode;
+import p2.Codec.PackedBits;
+import p2.Codec.TableEncoder;
+import p2.DataStructures.Map.Map;
+import p2.Utils.CorpusGenerator;
+
+public class TableEncoderTest {
+
+	/* The codes of every char spelled out one after the other */
+	private static String spell(Map<String, String> codes, String text) {
+		StringBuilder bits = new StringBuilder();
+		for (int i = 0; i < text.length(); i++)
+			bits.append(codes.get(text.substring(i, i + 1)));
+		return bits.toString();
+	}
+
+	@Test
+	public void testMatchesCodeMap() {
+		boolean check = true;
+		String[] distributions = { "uniform", "zipf", "fibonacci", "natural" };
+		for (String distribution : distributions)
+			for (int length : new int[] { 1, 7, 8, 9, 1000, 54321 }) {
+				String text = CorpusGenerator.of(distribution, 40, length).generateText(length);
+				Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd(text)));
+
+				PackedBits packed = new TableEncoder(codes).encode(text);
+				String expected = spell(codes, text);
+				check &= packed.getBitLength() == expected.length() && packed.toBitString().equals(expected)
+						&& HuffmanCoding.encode(codes, text).equals(expected);
+			}
+
+		assertTrue("Table encoder output differs from the codes in the map", check);
+	}
+
+	@Test
+	public void testLongCodes() {
+		/* Codes of 1, 2, ..., 50 and 50 bits, most of them longer than an int holds */
+		int[] symbols = new int[51];
+		int[] lengths = new int[51];
+		for (int i = 0; i < 51; i++) {
+			symbols[i] = 'A' + i;
+			lengths[i] = Math.min(i + 1, 50);
+		}
+		CanonicalCode code = new CanonicalCode(symbols, lengths);
+
+		Random random = new Random(25);
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 20000; i++)
+			text.append((char) symbols[random.nextInt(51)]);
+
+		BitWriter writer = new BitWriter();
+		for (int i = 0; i < text.length(); i++)
+			code.encode(text.charAt(i), writer);
+		PackedBits expected = writer.toPackedBits();
+		PackedBits packed = new TableEncoder(code).encode(text);
+
+		boolean check = packed.getBitLength() == expected.getBitLength()
+				&& packed.toBitString().equals(expected.toBitString())
+				&& new TableEncoder(code.toMap()).encode(text).toBitString().equals(expected.toBitString());
+
+		BitReader reader = new BitReader(packed.getBytes(), packed.getBitLength());
+		for (int i = 0; i < text.length() && check; i++)
+			check = code.decode(reader) == text.charAt(i);
+
+		assertTrue("Codes longer than 32 bits are not encoded correctly", check);
+	}
+
+	@Test
+	public void testMissingSymbol() {
+		Map<String, String> codes = HuffmanCoding.huffman_code(HuffmanCoding.huffman_tree(HuffmanCoding.compute_fd("aabbbc")));
+		boolean check = false;
+		try {
+			new TableEncoder(codes).encode("abcd");
+		} catch (IllegalArgumentException e) {
+			check = e.getMessage().contains("'d'");
+		}
+
+		assertTrue("Encoding a symbol without code should throw", check);
+	}
+}